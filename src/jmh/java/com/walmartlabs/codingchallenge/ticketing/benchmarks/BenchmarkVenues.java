@@ -0,0 +1,46 @@
+package com.walmartlabs.codingchallenge.ticketing.benchmarks;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Builds venues for the benchmarks, already filled up to a given occupancy.
+ */
+final class BenchmarkVenues {
+
+    /**
+     * Occupancy is made of permanent holds, they are never registered with a service so they never expire.
+     */
+    private static final long OCCUPANCY_HOLD_TIMEOUT = 24 * 60 * 60;
+    private static final int MAX_OCCUPANCY_GROUP = 8;
+
+    private BenchmarkVenues() {
+    }
+
+    /**
+     * @param layout    rows by seats per row, e.g. "50x100"
+     * @param occupancy share of seats to hold up front, between 0 and 1
+     * @return a venue with groups of random size held until the occupancy is reached
+     */
+    static Venue occupied(String layout, double occupancy) {
+
+        String[] size = layout.split("x");
+        checkArgument(size.length == 2, "Venue layout should look like <rows>x<seatsPerRow>");
+        int rows = Integer.parseInt(size[0]);
+        int seatsPerRow = Integer.parseInt(size[1]);
+        Venue venue = new Venue(1, rows, seatsPerRow);
+
+        Random random = new Random(42);
+        int target = (int) (venue.getTotalSeats() * (1 - occupancy));
+        while (venue.getAvailableSeatCount() > target) {
+            int groupSize = 1 + random.nextInt(Math.min(MAX_OCCUPANCY_GROUP, venue.getAvailableSeatCount() - target));
+            if (venue.holdSequentSeats(groupSize, OCCUPANCY_HOLD_TIMEOUT).length == 0) {
+                venue.holdSequentSeats(1, OCCUPANCY_HOLD_TIMEOUT);
+            }
+        }
+        return venue;
+    }
+}
@@ -0,0 +1,63 @@
+package com.walmartlabs.codingchallenge.ticketing.benchmarks;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks holds in rows of their own, the path row striping is meant to scale. Every thread holds and releases a
+ * block in a row no other thread touches, so the only state threads share is the venue wide bookkeeping: the tree
+ * over the free runs of all rows, the available counts and the availability snapshot. Throughput should grow with the
+ * number of threads up to the number of cores, compare e.g.
+ * ./gradlew jmh -PjmhInclude=RowStripedHoldBenchmark -PjmhThreads=1 and -PjmhThreads=8.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowStripedHoldBenchmark {
+
+    private static final int ROWS = 64;
+    private static final int SEATS_PER_ROW = 100;
+
+    @Param({"4"})
+    public int groupSize;
+
+    private final AtomicInteger nextRow = new AtomicInteger();
+
+    private Venue venue;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        venue = new Venue(1, ROWS, SEATS_PER_ROW);
+    }
+
+    /**
+     * The block a thread holds and releases, in a row of its own
+     */
+    @State(Scope.Thread)
+    public static class OwnRow {
+
+        private int[] seatIds;
+
+        @Setup(Level.Trial)
+        public void pickRow(RowStripedHoldBenchmark benchmark) {
+            int row = benchmark.nextRow.getAndIncrement() % ROWS;
+            seatIds = new int[benchmark.groupSize];
+            for (int i = 0; i < seatIds.length; i++) {
+                seatIds[i] = row * SEATS_PER_ROW + (SEATS_PER_ROW - seatIds.length) / 2 + i + 1;
+            }
+        }
+    }
+
+    @Benchmark
+    public int holdAndRelease(OwnRow ownRow) {
+        venue.holdSeats(ownRow.seatIds, 60);
+        venue.releaseSeats(ownRow.seatIds);
+        return venue.getAvailableSeatCount();
+    }
+}
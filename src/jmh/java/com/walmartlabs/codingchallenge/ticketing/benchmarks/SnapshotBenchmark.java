@@ -0,0 +1,56 @@
+package com.walmartlabs.codingchallenge.ticketing.benchmarks;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.VenueSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways of getting a venue at startup: building it with its constructor, which rates every seat, and
+ * loading it mid-sale from a snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"50x100", "1000x1000"})
+    public String venueSize;
+
+    private int rows;
+    private int seatsPerRow;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Venue venue = BenchmarkVenues.occupied(venueSize, 0.5);
+        String[] size = venueSize.split("x");
+        rows = Integer.parseInt(size[0]);
+        seatsPerRow = Integer.parseInt(size[1]);
+        snapshotFile = Files.createTempFile("venue", ".snapshot");
+        new VenueSnapshot(venue, 0, Collections.emptyList()).write(snapshotFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public Venue construct() {
+        return new Venue(1, rows, seatsPerRow);
+    }
+
+    @Benchmark
+    public VenueSnapshot load() throws IOException {
+        return VenueSnapshot.read(snapshotFile);
+    }
+}
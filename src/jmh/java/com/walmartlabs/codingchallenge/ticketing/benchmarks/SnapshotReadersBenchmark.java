@@ -0,0 +1,69 @@
+package com.walmartlabs.codingchallenge.ticketing.benchmarks;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.AvailabilitySnapshot;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks holds with and without threads reading availability snapshots next to them. Writers only publish the rows
+ * they change and readers put snapshots together on their own, so the hold score of holdsWithReaders should stay
+ * close to that of holdsAlone as long as there are cores for the readers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SnapshotReadersBenchmark {
+
+    @Param({"50x100", "200x500"})
+    public String venueSize;
+
+    private Venue venue;
+
+    /**
+     * A free block in the middle of the venue that the writer holds and releases
+     */
+    private int[] block;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        venue = BenchmarkVenues.occupied(venueSize, 0);
+        int seatsPerRow = venue.getAvailabilitySnapshot().getSeatsPerRow();
+        int first = venue.getTotalSeats() / 2 + 1;
+        block = new int[]{first, first + 1, first + 2, first + 3};
+        if (first % seatsPerRow > seatsPerRow - 4) {
+            throw new IllegalStateException("Block should not span two rows");
+        }
+    }
+
+    private int holdAndRelease() {
+        venue.holdSeats(block, 60);
+        venue.releaseSeats(block);
+        return venue.getAvailableSeatCount();
+    }
+
+    @Benchmark
+    @Group("holdsAlone")
+    @GroupThreads(1)
+    public int holdAlone() {
+        return holdAndRelease();
+    }
+
+    @Benchmark
+    @Group("holdsWithReaders")
+    @GroupThreads(1)
+    public int hold() {
+        return holdAndRelease();
+    }
+
+    @Benchmark
+    @Group("holdsWithReaders")
+    @GroupThreads(3)
+    public AvailabilitySnapshot read() {
+        return venue.getAvailabilitySnapshot();
+    }
+}
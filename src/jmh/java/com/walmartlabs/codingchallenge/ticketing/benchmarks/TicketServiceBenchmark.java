@@ -0,0 +1,97 @@
+package com.walmartlabs.codingchallenge.ticketing.benchmarks;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.ConcurrentTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.TicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the TicketService operations. Run with more threads (-t, or -PjmhThreads through gradle) to see how the
+ * implementations hold up under contention, all threads share one service.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketServiceBenchmark {
+
+    private static final String EMAIL = "benchmark@tech.com";
+
+    @Param({"simple", "concurrent"})
+    public String service;
+
+    @Param({"10x10", "50x100", "200x500"})
+    public String venueSize;
+
+    @Param({"1", "4", "12"})
+    public int groupSize;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double occupancy;
+
+    private TicketService ticketService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Holds expire right away and get released on the next call, which keeps the occupancy steady
+        ticketService = newTicketService(service, BenchmarkVenues.occupied(venueSize, occupancy), 0);
+    }
+
+    static TicketService newTicketService(String service, Venue venue, long seatHoldTimeout) {
+        switch (service) {
+            case "simple":
+                return new SimpleTicketService(venue, seatHoldTimeout);
+            case "concurrent":
+                return new ConcurrentTicketService(venue, seatHoldTimeout);
+            default:
+                throw new IllegalArgumentException("Unknown service " + service);
+        }
+    }
+
+    @Benchmark
+    public SeatHold findAndHoldSeats() {
+        try {
+            return ticketService.findAndHoldSeats(groupSize, EMAIL);
+        } catch (TicketServiceException ex) {
+            // Sold out at this occupancy, that's part of what we measure
+            return null;
+        }
+    }
+
+    @Benchmark
+    public int numSeatsAvailable() {
+        return ticketService.numSeatsAvailable();
+    }
+
+    @Benchmark
+    public String reserveSeats(HeldSeats heldSeats) {
+        return heldSeats.ticketService.reserveSeats(heldSeats.seatHold.getId(), EMAIL);
+    }
+
+    /**
+     * Reserving uses up seats for good, so every reservation gets a fresh hold outside of the measurement, on an empty
+     * venue that is rebuilt whenever it runs out of seats.
+     */
+    @State(Scope.Thread)
+    public static class HeldSeats {
+
+        private TicketService ticketService;
+        private SeatHold seatHold;
+
+        @Setup(Level.Invocation)
+        public void hold(TicketServiceBenchmark benchmark) {
+            if (ticketService == null || ticketService.numSeatsAvailable() < benchmark.groupSize * 2) {
+                Venue venue = BenchmarkVenues.occupied(benchmark.venueSize, 0);
+                ticketService = newTicketService(benchmark.service, venue, 60);
+            }
+            seatHold = ticketService.findAndHoldSeats(benchmark.groupSize, EMAIL);
+        }
+    }
+}
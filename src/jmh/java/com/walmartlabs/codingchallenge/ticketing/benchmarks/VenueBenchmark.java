@@ -0,0 +1,73 @@
+package com.walmartlabs.codingchallenge.ticketing.benchmarks;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.AvailabilitySnapshot;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatMap;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the read paths of the venue: looking up the best block of seats and rendering the seat map. None of them
+ * changes the venue for good, so the occupancy stays what the setup made it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VenueBenchmark {
+
+    @Param({"10x10", "50x100", "200x500"})
+    public String venueSize;
+
+    @Param({"1", "4", "12"})
+    public int groupSize;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double occupancy;
+
+    private Venue venue;
+
+    /**
+     * A free seat that seatMapAfterChange holds and releases again
+     */
+    private int[] freeSeat;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        venue = BenchmarkVenues.occupied(venueSize, occupancy);
+        AvailabilitySnapshot snapshot = venue.getAvailabilitySnapshot();
+        int seatId = 1;
+        while (snapshot.getState(seatId) != AvailabilitySnapshot.FREE) {
+            seatId++;
+        }
+        freeSeat = new int[]{seatId};
+    }
+
+    @Benchmark
+    public int[] findSequentSeats() {
+        return venue.findSequentSeats(groupSize, null);
+    }
+
+    @Benchmark
+    public String printSeats() {
+        return venue.printSeats();
+    }
+
+    @Benchmark
+    public SeatMap seatMap() {
+        return venue.getSeatMap();
+    }
+
+    /**
+     * The seat map right after a change, which re-encodes the changed row only
+     */
+    @Benchmark
+    public SeatMap seatMapAfterChange() {
+        venue.holdSeats(freeSeat, 60);
+        venue.releaseSeats(freeSeat);
+        return venue.getSeatMap();
+    }
+}
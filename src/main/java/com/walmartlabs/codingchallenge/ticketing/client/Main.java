@@ -53,7 +53,7 @@ public class Main {
 
                         SeatHold seatHold = ticketService.findAndHoldSeats(numSeatsToHold, email);
                         System.out.println("Your SeatHold ID : " + seatHold.getId());
-                        System.out.println(venue.printSeats());
+                        System.out.println(venue.getSeatMap());
 
                     } catch (Exception ex) {
                         System.out.println(ex.getMessage());
@@ -72,7 +72,7 @@ public class Main {
                         String confirmationCode = ticketService.reserveSeats(id, email);
 
                         System.out.println("Reservation Code : " + confirmationCode);
-                        System.out.println(venue.printSeats());
+                        System.out.println(venue.getSeatMap());
 
                     } catch (Exception ex) {
                         System.out.println(ex.getMessage());
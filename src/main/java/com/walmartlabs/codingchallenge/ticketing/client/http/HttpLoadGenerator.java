@@ -0,0 +1,175 @@
+package com.walmartlabs.codingchallenge.ticketing.client.http;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.EventLoopTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A closed loop load generator for {@link TicketHttpServer} over loopback. Every connection runs its own client
+ * thread that holds a group of seats, reserves half of its holds and checks availability now and then, one request at
+ * a time over a kept alive connection. Each run reports requests per second and latency percentiles.
+ *
+ * Usage: HttpLoadGenerator [connection counts, e.g. 1,8,64] [seconds per run] [rows] [seats per row]
+ *
+ * Every run starts a fresh server with a fresh venue in this JVM, so once a venue is sold out the remaining holds are
+ * answered with 409 and still count as requests.
+ */
+public class HttpLoadGenerator {
+
+    private static final Pattern SEAT_HOLD_ID = Pattern.compile("\"seatHoldId\":(\\d+)");
+    private static final String EMAIL = "load@tech.com";
+    private static final int MAX_GROUP_SIZE = 4;
+    private static final int SEAT_HOLD_TIMEOUT = 60;
+
+    private final int rows;
+    private final int seatsPerRow;
+
+    public HttpLoadGenerator(int rows, int seatsPerRow) {
+        checkArgument(rows > 0 && seatsPerRow > 0, "Please provide a valid venue size");
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+    }
+
+    /**
+     * Runs the load with a fixed number of connections.
+     *
+     * @param connections number of connections, each with one request in flight
+     * @param seconds     how long to run
+     * @return a one line report
+     */
+    public String run(int connections, int seconds) throws Exception {
+
+        checkArgument(connections > 0 && seconds > 0, "Please provide positive connections and duration");
+
+        EventLoopTicketService ticketService =
+                new EventLoopTicketService(new SimpleTicketService(new Venue(1, rows, seatsPerRow), SEAT_HOLD_TIMEOUT));
+        TicketHttpServer server = new TicketHttpServer(ticketService,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        ExecutorService clients = Executors.newFixedThreadPool(connections);
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        try {
+            String base = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                workers.add(clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        clientStep(base, latency, errors);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            clients.shutdownNow();
+            server.close();
+            ticketService.close();
+        }
+
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        return String.format("connections=%d requests/s=%.0f p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms errors=%d",
+                connections, (double) snapshot.getCount() / seconds, millis(snapshot.getValueAtPercentile(50)),
+                millis(snapshot.getValueAtPercentile(99)), millis(snapshot.getValueAtPercentile(99.9)),
+                millis(snapshot.getMax()), errors.sum());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void clientStep(String base, LatencyHistogram latency, LongAdder errors) {
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(4) == 0) {
+            request("GET", base + "/seats/available", latency, errors);
+            return;
+        }
+        String hold = request("POST", base + "/holds?numSeats=" + random.nextInt(1, MAX_GROUP_SIZE + 1)
+                + "&email=" + EMAIL, latency, errors);
+        Matcher seatHoldId = SEAT_HOLD_ID.matcher(hold);
+        if (seatHoldId.find() && random.nextBoolean()) {
+            request("POST", base + "/holds/" + seatHoldId.group(1) + "/reserve?email=" + EMAIL, latency, errors);
+        }
+    }
+
+    /**
+     * Sends one request and reads the whole response, so the connection can be kept alive for the next one.
+     *
+     * @return the response body, empty if the request failed
+     */
+    private static String request(String method, String url, LatencyHistogram latency, LongAdder errors) {
+
+        long start = System.nanoTime();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod(method);
+            if ("POST".equals(method)) {
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.flush();
+                }
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                String body = in == null ? "" : read(in);
+                latency.record(System.nanoTime() - start);
+                if (status >= 500) {
+                    errors.increment();
+                }
+                return body;
+            }
+        } catch (IOException ex) {
+            latency.record(System.nanoTime() - start);
+            errors.increment();
+            return "";
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        StringBuilder body = new StringBuilder();
+        byte[] buffer = new byte[512];
+        for (int read; (read = in.read(buffer)) > 0; ) {
+            body.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+        return body.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        String connectionCounts = args.length > 0 ? args[0] : "1,8,64";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seatsPerRow = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        HttpLoadGenerator generator = new HttpLoadGenerator(rows, seatsPerRow);
+        for (String connections : connectionCounts.split(",")) {
+            System.out.println(generator.run(Integer.parseInt(connections.trim()), seconds));
+        }
+    }
+
+}
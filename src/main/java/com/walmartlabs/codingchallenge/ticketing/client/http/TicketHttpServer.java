@@ -0,0 +1,292 @@
+package com.walmartlabs.codingchallenge.ticketing.client.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.AsyncTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.EventLoopTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An HTTP/JSON front end for an AsyncTicketService, built on the JDK's HTTP server.
+ *
+ * Routes:
+ * <pre>
+ *   GET  /seats/available                               {"available":42}
+ *   POST /holds?numSeats=2&amp;email=a@b.com                {"seatHoldId":1,"numSeats":2,"seats":[5,6]}
+ *   POST /holds/{seatHoldId}/reserve?email=a@b.com      {"confirmationCode":"R1"}
+ * </pre>
+ * Parameters go in the query string or in a form encoded body. Invalid requests answer 400, requests the service
+ * turns down 409, both with {"error":"..."}. Anything else answers 500 with a fixed message, the details only go to
+ * the server's log.
+ *
+ * Handlers never wait for the service: they hand the request over and return, and the response is written on the
+ * server's executor once the future completes, so a few threads serve many connections in flight.
+ */
+public class TicketHttpServer implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(TicketHttpServer.class.getName());
+
+    private static final Pattern RESERVE_PATH = Pattern.compile("/holds/(\\d+)/reserve");
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int VENUE_ID = 1;
+    private static final int NUMBER_OF_ROWS = 10;
+    private static final int SEATS_PER_ROW = 10;
+    private static final int SEAT_HOLD_TIMEOUT = 60;
+
+    static {
+        // Responses go out as headers and body in separate writes, without TCP_NODELAY every small response waits for
+        // the client's delayed ACK (about 40 ms). The JDK server reads this once, before the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final AsyncTicketService ticketService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Starts serving the ticket service on the given address, port 0 picks a free port.
+     *
+     * @param ticketService
+     * @param address
+     */
+    public TicketHttpServer(AsyncTicketService ticketService, InetSocketAddress address) throws IOException {
+
+        this.ticketService = ticketService;
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "ticket-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/seats/available", this::available);
+        server.createContext("/holds", this::holds);
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void available(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Use GET to read the available seats."));
+            return;
+        }
+        reply(exchange, ticketService.numSeatsAvailable(), available -> "{\"available\":" + available + "}");
+    }
+
+    private void holds(HttpExchange exchange) throws IOException {
+
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Use POST to hold or reserve seats."));
+            return;
+        }
+        Map<String, String> params = params(exchange);
+        String path = exchange.getRequestURI().getPath();
+        Matcher reserve = RESERVE_PATH.matcher(path);
+
+        try {
+            if ("/holds".equals(path)) {
+                int numSeats = intParam(params, "numSeats");
+                reply(exchange, ticketService.findAndHoldSeats(numSeats, stringParam(params, "email")), seatHold -> {
+                    if (seatHold.getId() == null) {
+                        throw new TicketServiceException(String.format(
+                                "We couldn't find %d seats together or in blocks right now.", numSeats));
+                    }
+                    return seatHoldJson(seatHold);
+                });
+            } else if (reserve.matches()) {
+                int seatHoldId = Integer.parseInt(reserve.group(1));
+                reply(exchange, ticketService.reserveSeats(seatHoldId, stringParam(params, "email")),
+                        code -> "{\"confirmationCode\":" + quote(code) + "}");
+            } else {
+                respond(exchange, 404, error("No such route: " + path));
+            }
+        } catch (IllegalArgumentException ex) {
+            respond(exchange, 400, error(ex.getMessage()));
+        }
+    }
+
+    private interface JsonWriter<T> {
+        String toJson(T value);
+    }
+
+    /**
+     * Writes the response once the service is done, on the server's executor rather than the service's thread.
+     */
+    private <T> void reply(HttpExchange exchange, CompletableFuture<T> result, JsonWriter<T> writer) {
+        result.handleAsync((value, failure) -> {
+            try {
+                if (failure == null) {
+                    respond(exchange, 200, writer.toJson(value));
+                } else {
+                    respondWithFailure(exchange, failure);
+                }
+            } catch (RuntimeException ex) {
+                // Whatever the writer throws, the client gets an answer and the exchange gets closed
+                respondWithFailure(exchange, ex);
+            }
+            return null;
+        }, executor);
+    }
+
+    private void respondWithFailure(HttpExchange exchange, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof IllegalArgumentException) {
+            respond(exchange, 400, error(cause.getMessage()));
+        } else if (cause instanceof TicketServiceException) {
+            respond(exchange, 409, error(cause.getMessage()));
+        } else {
+            // Messages of unexpected exceptions are no business of the client's
+            LOGGER.log(Level.SEVERE, "Failed to serve " + exchange.getRequestURI(), cause);
+            respond(exchange, 500, error("Internal error"));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException ex) {
+            // The client went away, nothing left to tell it
+            exchange.close();
+        }
+    }
+
+    private static String seatHoldJson(SeatHold seatHold) {
+        StringBuilder json = new StringBuilder("{\"seatHoldId\":").append(seatHold.getId())
+                .append(",\"numSeats\":").append(seatHold.getNumSeats())
+                .append(",\"seats\":[");
+        int[] seats = seatHold.getSeats();
+        for (int i = 0; i < seats.length; i++) {
+            json.append(i > 0 ? "," : "").append(seats[i]);
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Reads the parameters of the query string and of a form encoded body.
+     */
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                body.write(buffer, 0, read);
+            }
+            parse(new String(body.toByteArray(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parse(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        try {
+            for (String pair : encoded.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    params.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+                            URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+                }
+            }
+        } catch (UnsupportedEncodingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String stringParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("Please provide the %s parameter.", name));
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name) {
+        try {
+            return Integer.parseInt(stringParam(params, name));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("The %s parameter should be a number.", name));
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Serves a venue of the default size, optionally on the port given as first argument.
+     */
+    public static void main(String[] args) throws IOException {
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Venue venue = new Venue(VENUE_ID, NUMBER_OF_ROWS, SEATS_PER_ROW);
+        AsyncTicketService ticketService = new EventLoopTicketService(new SimpleTicketService(venue, SEAT_HOLD_TIMEOUT));
+        TicketHttpServer server = new TicketHttpServer(ticketService, new InetSocketAddress(port));
+        System.out.println("Serving tickets on port " + server.getPort());
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.walmartlabs.codingchallenge.ticketing.client.workload;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * What a {@link WorkloadHarness} run sends: customers arrive at a fixed rate, each holds a group of seats drawn from a
+ * group size distribution and then either reserves the hold or abandons it (lets it expire).
+ */
+public class Workload {
+
+    private final int arrivalsPerSecond;
+    private final int durationSeconds;
+    private final int[] groupSizeWeights;
+    private final double reserveShare;
+    private final long seed;
+
+    private final int totalWeight;
+
+    /**
+     * @param arrivalsPerSecond customers arriving per second, no matter how fast the service answers
+     * @param durationSeconds   how long customers keep arriving
+     * @param groupSizeWeights  relative weight of every group size, the first entry being groups of one
+     * @param reserveShare      share of successful holds that get reserved, the others are abandoned
+     * @param seed              seed for group sizes and reservations, so runs can be repeated
+     */
+    public Workload(int arrivalsPerSecond, int durationSeconds, int[] groupSizeWeights, double reserveShare, long seed) {
+
+        checkArgument(arrivalsPerSecond > 0, "Please provide a positive arrival rate");
+        checkArgument(durationSeconds > 0, "Please provide a positive duration");
+        checkArgument(groupSizeWeights != null && groupSizeWeights.length > 0, "Please provide group size weights");
+        checkArgument(Arrays.stream(groupSizeWeights).allMatch(weight -> weight >= 0)
+                && Arrays.stream(groupSizeWeights).sum() > 0, "Group size weights must be positive");
+        checkArgument(reserveShare >= 0 && reserveShare <= 1, "Reserve share must be between 0 and 1");
+
+        this.arrivalsPerSecond = arrivalsPerSecond;
+        this.durationSeconds = durationSeconds;
+        this.groupSizeWeights = groupSizeWeights.clone();
+        this.reserveShare = reserveShare;
+        this.seed = seed;
+        this.totalWeight = Arrays.stream(groupSizeWeights).sum();
+    }
+
+    public int getArrivalsPerSecond() {
+        return arrivalsPerSecond;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public double getReserveShare() {
+        return reserveShare;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the total number of customers arriving during a run
+     */
+    long arrivals() {
+        return (long) arrivalsPerSecond * durationSeconds;
+    }
+
+    /**
+     * @return a group size drawn from the distribution
+     */
+    int nextGroupSize(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < groupSizeWeights.length; i++) {
+            pick -= groupSizeWeights[i];
+            if (pick < 0) {
+                return i + 1;
+            }
+        }
+        return groupSizeWeights.length;
+    }
+
+}
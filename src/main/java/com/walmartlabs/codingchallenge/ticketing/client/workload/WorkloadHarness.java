@@ -0,0 +1,142 @@
+package com.walmartlabs.codingchallenge.ticketing.client.workload;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.TicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.LatencyHistogram;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An open loop workload driver for a TicketService. Customers arrive on a fixed schedule, one every 1/rate seconds,
+ * whether or not the service has answered the previous ones, and a pool of workers plays them out: hold a group of
+ * seats, then reserve or abandon the hold.
+ *
+ * A closed loop (send, wait, send) slows down with the service and so never sends the requests that would have waited
+ * behind a stall, hiding exactly the latency customers see. Here every hold is timed from the moment its customer was
+ * due to arrive, so a stall shows up in every request scheduled during it. A reservation follows its hold right away
+ * and is timed from the moment the hold returned.
+ *
+ * Usage: WorkloadHarness [arrivals per second] [seconds] [rows] [seats per row]
+ */
+public class WorkloadHarness {
+
+    private static final String EMAIL = "customer%d@load.com";
+    private static final int SEAT_HOLD_TIMEOUT = 60;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final Workload workload;
+    private final int workers;
+
+    /**
+     * @param workload what to send
+     * @param workers  number of threads playing out customers, enough to cover the service's concurrency
+     */
+    public WorkloadHarness(Workload workload, int workers) {
+        checkArgument(workload != null, "Please provide a workload");
+        checkArgument(workers > 0, "Please provide a positive number of workers");
+        this.workload = workload;
+        this.workers = workers;
+    }
+
+    /**
+     * Runs the workload against the service and waits for every customer to be served.
+     *
+     * @param ticketService
+     * @return latencies, throughput and outcome counts of the run
+     */
+    public WorkloadReport run(TicketService ticketService) throws InterruptedException {
+
+        LatencyHistogram holdLatency = new LatencyHistogram();
+        LatencyHistogram reserveLatency = new LatencyHistogram();
+        LongAdder holds = new LongAdder();
+        LongAdder reservations = new LongAdder();
+        LongAdder abandoned = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLong lastCompletion = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "workload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Random random = new Random(workload.getSeed());
+        long interval = TimeUnit.SECONDS.toNanos(1) / workload.getArrivalsPerSecond();
+        long arrivals = workload.arrivals();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < arrivals; i++) {
+            long due = start + i * interval;
+            for (long wait; (wait = due - System.nanoTime()) > 0; ) {
+                LockSupport.parkNanos(wait);
+            }
+            int numSeats = workload.nextGroupSize(random);
+            boolean reserve = random.nextDouble() < workload.getReserveShare();
+            String email = String.format(EMAIL, i);
+
+            pool.execute(() -> {
+                try {
+                    SeatHold seatHold = ticketService.findAndHoldSeats(numSeats, email);
+                    long held = System.nanoTime();
+                    holdLatency.record(held - due);
+                    if (seatHold.getId() == null) {
+                        rejected.increment();
+                    } else if (reserve) {
+                        holds.increment();
+                        ticketService.reserveSeats(seatHold.getId(), email);
+                        reserveLatency.record(System.nanoTime() - held);
+                        reservations.increment();
+                    } else {
+                        holds.increment();
+                        abandoned.increment();
+                    }
+                } catch (TicketServiceException ex) {
+                    rejected.increment();
+                } catch (RuntimeException ex) {
+                    errors.increment();
+                } finally {
+                    lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+                }
+            });
+        }
+
+        pool.shutdown();
+        if (!pool.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            // Customers still waiting count as failures rather than holding up the run forever
+            errors.add(pool.shutdownNow().size());
+        }
+        long elapsed = Math.max(lastCompletion.get(), start + arrivals * interval) - start;
+
+        return new WorkloadReport(holdLatency.snapshot(), reserveLatency.snapshot(), holds.sum(), reservations.sum(),
+                abandoned.sum(), rejected.sum(), errors.sum(), elapsed);
+    }
+
+    /**
+     * Runs groups of one to eight, smaller groups being more common, against a fresh SimpleTicketService and prints
+     * the report.
+     */
+    public static void main(String[] args) throws InterruptedException {
+
+        int arrivalsPerSecond = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seatsPerRow = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        Workload workload = new Workload(arrivalsPerSecond, seconds, new int[]{20, 35, 10, 20, 5, 5, 3, 2}, 0.7,
+                System.nanoTime());
+        WorkloadHarness harness = new WorkloadHarness(workload, Runtime.getRuntime().availableProcessors() * 2);
+        System.out.println(harness.run(new SimpleTicketService(new Venue(1, rows, seatsPerRow), SEAT_HOLD_TIMEOUT)));
+    }
+
+}
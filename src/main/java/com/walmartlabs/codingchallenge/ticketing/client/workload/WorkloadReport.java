@@ -0,0 +1,131 @@
+package com.walmartlabs.codingchallenge.ticketing.client.workload;
+
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The outcome of a {@link WorkloadHarness} run. Latencies are measured from the time a request was due to be sent, not
+ * from when it actually went out, so time spent queueing behind a slow service counts (no coordinated omission).
+ */
+public class WorkloadReport {
+
+    private final LatencyHistogram.Snapshot holdLatency;
+    private final LatencyHistogram.Snapshot reserveLatency;
+    private final long holds;
+    private final long reservations;
+    private final long abandoned;
+    private final long rejected;
+    private final long errors;
+    private final long elapsedNanos;
+
+    WorkloadReport(LatencyHistogram.Snapshot holdLatency, LatencyHistogram.Snapshot reserveLatency, long holds,
+                   long reservations, long abandoned, long rejected, long errors, long elapsedNanos) {
+        this.holdLatency = holdLatency;
+        this.reserveLatency = reserveLatency;
+        this.holds = holds;
+        this.reservations = reservations;
+        this.abandoned = abandoned;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public LatencyHistogram.Snapshot getHoldLatency() {
+        return holdLatency;
+    }
+
+    public LatencyHistogram.Snapshot getReserveLatency() {
+        return reserveLatency;
+    }
+
+    /**
+     * @return hold requests that got their seats, counted per request rather than per seat
+     */
+    public long getHolds() {
+        return holds;
+    }
+
+    public long getReservations() {
+        return reservations;
+    }
+
+    /**
+     * @return holds left to expire
+     */
+    public long getAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * @return holds the service turned down, e.g., for lack of seats
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return calls that failed unexpectedly
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return completed calls per second, holds and reservations together
+     */
+    public double getThroughput() {
+        return (holdLatency.getCount() + reserveLatency.getCount()) / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Checks the run against latency objectives and turns up every one it missed.
+     *
+     * @param percentile  e.g. 99.9
+     * @param holdMillis  the most the hold latency may be at that percentile
+     * @param reserveMillis the most the reserve latency may be at that percentile
+     * @return a description of every missed objective, empty if all were met
+     */
+    public List<String> sloViolations(double percentile, double holdMillis, double reserveMillis) {
+
+        checkArgument(holdMillis > 0 && reserveMillis > 0, "Latency objectives must be positive");
+        List<String> violations = new ArrayList<>();
+        check(violations, "hold", holdLatency, percentile, holdMillis);
+        check(violations, "reserve", reserveLatency, percentile, reserveMillis);
+        if (errors > 0) {
+            violations.add(String.format("%d calls failed unexpectedly", errors));
+        }
+        return violations;
+    }
+
+    private static void check(List<String> violations, String operation, LatencyHistogram.Snapshot latency,
+                              double percentile, double objectiveMillis) {
+        double actualMillis = millis(latency.getValueAtPercentile(percentile));
+        if (actualMillis > objectiveMillis) {
+            violations.add(String.format("%s p%s is %.2f ms, objective is %.2f ms", operation, percentile, actualMillis,
+                    objectiveMillis));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("throughput=%.0f/s holds=%d reservations=%d abandoned=%d rejected=%d errors=%d\n",
+                getThroughput(), holds, reservations, abandoned, rejected, errors)
+                + latencyLine("hold", holdLatency) + "\n" + latencyLine("reserve", reserveLatency);
+    }
+
+    private static String latencyLine(String operation, LatencyHistogram.Snapshot latency) {
+        return String.format("%s: p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms", operation,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMax()));
+    }
+
+}
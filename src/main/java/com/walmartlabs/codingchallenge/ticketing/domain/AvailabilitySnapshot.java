@@ -0,0 +1,169 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An immutable view of the state of every seat in a venue, as of one version of it. Every hold, reservation and
+ * release shows up in a snapshot with all the seats it changed, so readers get a consistent view without taking any
+ * lock and without holding up writers.
+ *
+ * Writers only publish the rows they changed, each a new {@link Row} with its own version. A snapshot is put together
+ * from the published rows by the next reader that asks for it, sharing every row that didn't change with the snapshot
+ * before, so a write costs the rows it changed and nothing more.
+ *
+ * Seat ids are 1 based, same as in the venue, rows are zero based.
+ */
+public final class AvailabilitySnapshot {
+
+    public static final byte FREE = 0;
+    public static final byte HELD = 1;
+    public static final byte RESERVED = 2;
+
+    /**
+     * State of places in a venue layout that are no seat, e.g. aisles
+     */
+    public static final byte NO_SEAT = 3;
+
+    private final long version;
+    private final int seatsPerRow;
+    private final Row[] rows;
+    private final int availableSeats;
+
+    /**
+     * The state of every seat of a row, never changed once published
+     */
+    static final class Row {
+
+        private final byte[] states;
+        private final int freeSeats;
+
+        /**
+         * Number of times the row was published before this one
+         */
+        private final long version;
+
+        Row(byte[] states) {
+            this(states, 0);
+        }
+
+        private Row(byte[] states, long version) {
+            int free = 0;
+            for (byte state : states) {
+                if (state == FREE) {
+                    free++;
+                }
+            }
+            this.states = states;
+            this.freeSeats = free;
+            this.version = version;
+        }
+
+        /**
+         * @return the next version of this row, with the given states
+         */
+        Row next(byte[] nextStates) {
+            return new Row(nextStates, version + 1);
+        }
+
+        int size() {
+            return states.length;
+        }
+
+        byte state(int col) {
+            return states[col];
+        }
+    }
+
+    private AvailabilitySnapshot(long version, int seatsPerRow, Row[] rows, int availableSeats) {
+        this.version = version;
+        this.seatsPerRow = seatsPerRow;
+        this.rows = rows;
+        this.availableSeats = availableSeats;
+    }
+
+    /**
+     * @return the first snapshot of a venue with the given rows
+     */
+    static AvailabilitySnapshot of(int seatsPerRow, Row[] rows) {
+        long version = 0;
+        int available = 0;
+        for (Row row : rows) {
+            version += row.version;
+            available += row.freeSeats;
+        }
+        return new AvailabilitySnapshot(version, seatsPerRow, rows, available);
+    }
+
+    /**
+     * @param latest the rows as published last
+     * @return the snapshot of the published rows, sharing all rows that didn't change with this one, or this one if
+     * none did
+     */
+    AvailabilitySnapshot withLatest(AtomicReferenceArray<Row> latest) {
+        Row[] nextRows = null;
+        long nextVersion = version;
+        int available = availableSeats;
+        for (int i = 0; i < rows.length; i++) {
+            Row row = latest.get(i);
+            if (row != rows[i]) {
+                if (nextRows == null) {
+                    nextRows = rows.clone();
+                }
+                nextVersion += row.version - rows[i].version;
+                available += row.freeSeats - rows[i].freeSeats;
+                nextRows[i] = row;
+            }
+        }
+        return nextRows == null ? this : new AvailabilitySnapshot(nextVersion, seatsPerRow, nextRows, available);
+    }
+
+    /**
+     * @return the version of the venue this snapshot shows, the number of times any row changed, so every change to
+     * the venue counts it up by the number of rows it touched
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRows() {
+        return rows.length;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    /**
+     * @return the number of seats that are neither held nor reserved
+     */
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    /**
+     * @return the number of seats in the row that are neither held nor reserved
+     */
+    public int getFreeSeats(int row) {
+        checkArgument(row >= 0 && row < rows.length, "No such row: %s", row);
+        return rows[row].freeSeats;
+    }
+
+    /**
+     * @return the state of the seat, one of {@link #FREE}, {@link #HELD}, {@link #RESERVED} and {@link #NO_SEAT}
+     */
+    public byte getState(int seatId) {
+        checkArgument(seatId > 0 && seatId <= rows.length * seatsPerRow, "No such seat: %s", seatId);
+        return rows[(seatId - 1) / seatsPerRow].states[(seatId - 1) % seatsPerRow];
+    }
+
+    /**
+     * @return the row as published, same instance in every snapshot until the row changes
+     */
+    Row row(int row) {
+        return rows[row];
+    }
+
+}
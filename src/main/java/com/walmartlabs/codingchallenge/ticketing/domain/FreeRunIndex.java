@@ -0,0 +1,371 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntPredicate;
+
+/**
+ * An incrementally maintained index of contiguous free seats ("free runs") in a rectangular venue.
+ *
+ * Each row is backed by a segment tree where every node keeps the free run touching its left edge (prefix), the free
+ * run touching its right edge (suffix) and the longest free run inside it. A second tree over the rows keeps the
+ * longest run of every row, so finding the front most row that can take a group and the best window in that row are
+ * both logarithmic instead of a walk over every seat.
+ *
+ * Next to the trees every row keeps a bitmap of its free seats, 64 columns a word, so several rows can be intersected
+ * word by word when looking for a block spanning them.
+ *
+ * Rows and columns are zero based here. The tree of every row is expected to be guarded by the caller's lock for that
+ * row, so holds in different rows can update the index in parallel. The tree over rows is shared by all of them and
+ * updated lock free, see {@link #updateRowTree}, so neither writers nor readers of different rows ever wait for each
+ * other.
+ */
+class FreeRunIndex {
+
+    private final int seatsPerRow;
+
+    /**
+     * Number of leaves in each row tree (power of two, padding leaves are never free)
+     */
+    private final int rowLeaves;
+
+    /**
+     * Number of leaves in the tree over rows
+     */
+    private final int rowTreeLeaves;
+
+    private final int[] prefix;
+    private final int[] suffix;
+    private final int[] longest;
+
+    /**
+     * Max tree over the longest run of every row. Every node is a version in the high and a run length in the low 32
+     * bits, the version being counted up by every update so a node that changed and changed back is told apart.
+     */
+    private final AtomicLongArray rowTree;
+
+    /**
+     * Number of words in the free seat bitmap of each row
+     */
+    private final int rowWords;
+
+    /**
+     * Free seat bitmap of every row, bit col % 64 of word col / 64 is set if the seat is free
+     */
+    private final long[] freeBits;
+
+    /**
+     * Creates an index where every seat starts out free.
+     */
+    FreeRunIndex(int rows, int seatsPerRow) {
+        this(rows, seatsPerRow, seatIndex -> true);
+    }
+
+    /**
+     * Creates an index in one bottom up pass, e.g., when a venue is restored.
+     *
+     * @param isFree tells if the seat at index row * seatsPerRow + col is free
+     */
+    FreeRunIndex(int rows, int seatsPerRow, IntPredicate isFree) {
+        this.seatsPerRow = seatsPerRow;
+        this.rowLeaves = ceilPowerOfTwo(seatsPerRow);
+        this.rowTreeLeaves = ceilPowerOfTwo(rows);
+
+        int nodes = 2 * rowLeaves;
+        this.prefix = new int[rows * nodes];
+        this.suffix = new int[rows * nodes];
+        this.longest = new int[rows * nodes];
+        this.rowTree = new AtomicLongArray(2 * rowTreeLeaves);
+        this.rowWords = (seatsPerRow + 63) >>> 6;
+        this.freeBits = new long[rows * rowWords];
+
+        for (int row = 0; row < rows; row++) {
+            int base = row * nodes;
+            for (int col = 0; col < seatsPerRow; col++) {
+                int leaf = base + rowLeaves + col;
+                int free = isFree.test(row * seatsPerRow + col) ? 1 : 0;
+                prefix[leaf] = free;
+                suffix[leaf] = free;
+                longest[leaf] = free;
+                freeBits[row * rowWords + (col >>> 6)] |= (long) free << col;
+            }
+            for (int node = rowLeaves - 1; node >= 1; node--) {
+                pull(base, node, rowLeaves >> (31 - Integer.numberOfLeadingZeros(node)) >> 1);
+            }
+            rowTree.set(rowTreeLeaves + row, longest[base + 1]);
+        }
+        for (int node = rowTreeLeaves - 1; node >= 1; node--) {
+            rowTree.set(node, Math.max(run(rowTree.get(2 * node)), run(rowTree.get(2 * node + 1))));
+        }
+    }
+
+    private static int ceilPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Marks the given seat as taken (held or reserved).
+     */
+    void occupy(int row, int col) {
+        set(row, col, 0);
+    }
+
+    /**
+     * Marks the given seat as free again.
+     */
+    void free(int row, int col) {
+        set(row, col, 1);
+    }
+
+    /**
+     * @return true if the index considers the given seat free
+     */
+    boolean isFree(int row, int col) {
+        return longest[row * 2 * rowLeaves + rowLeaves + col] == 1;
+    }
+
+    /**
+     * @return number of words in the free seat bitmap of a row
+     */
+    int rowWords() {
+        return rowWords;
+    }
+
+    /**
+     * @return the given word of the free seat bitmap of the row, bit col % 64 being set if the seat is free
+     */
+    long freeWord(int row, int word) {
+        return freeBits[row * rowWords + word];
+    }
+
+    /**
+     * @return the longest run of free seats in the given row
+     */
+    int longestRun(int row) {
+        return longest[row * 2 * rowLeaves + 1];
+    }
+
+    /**
+     * @return the longest run of free seats in the whole venue
+     */
+    int longestRun() {
+        return run(rowTree.get(1));
+    }
+
+    private void set(int row, int col, int free) {
+        int base = row * 2 * rowLeaves;
+        int node = rowLeaves + col;
+        if (longest[base + node] == free) {
+            return;
+        }
+        prefix[base + node] = free;
+        suffix[base + node] = free;
+        longest[base + node] = free;
+        freeBits[row * rowWords + (col >>> 6)] ^= 1L << col;
+
+        int childLength = 1;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            pull(base, node, childLength);
+            childLength <<= 1;
+        }
+
+        updateRowTree(row, longest[base + 1]);
+    }
+
+    /**
+     * Sets the leaf of the row, which only the holder of the row lock writes, and brings its ancestors up to date with
+     * a CAS per node. Every ancestor is refreshed at most twice: if the first CAS loses, someone else changed the node
+     * after we wrote the leaf, and if the second loses too, the winner of that race read the children after the first
+     * one won, so it saw our leaf already. Either way the node is never left without our change.
+     */
+    private void updateRowTree(int row, int rowLongest) {
+        int node = rowTreeLeaves + row;
+        long leaf = rowTree.get(node);
+        if (run(leaf) == rowLongest) {
+            return;
+        }
+        rowTree.set(node, next(leaf, rowLongest));
+        for (node >>= 1; node >= 1; node >>= 1) {
+            if (!refresh(node)) {
+                refresh(node);
+            }
+        }
+    }
+
+    private boolean refresh(int node) {
+        long current = rowTree.get(node);
+        int max = Math.max(run(rowTree.get(2 * node)), run(rowTree.get(2 * node + 1)));
+        return rowTree.compareAndSet(node, current, next(current, max));
+    }
+
+    private static int run(long node) {
+        return (int) node;
+    }
+
+    private static long next(long node, int run) {
+        return ((node >>> 32) + 1) << 32 | run;
+    }
+
+    private void pull(int base, int node, int childLength) {
+        int left = base + 2 * node;
+        int right = left + 1;
+        int parent = base + node;
+
+        prefix[parent] = prefix[left] == childLength ? childLength + prefix[right] : prefix[left];
+        suffix[parent] = suffix[right] == childLength ? childLength + suffix[left] : suffix[right];
+        longest[parent] = Math.max(Math.max(longest[left], longest[right]), suffix[left] + prefix[right]);
+    }
+
+    /**
+     * @return the front most row (lowest index) having at least numSeats free seats next to each other, -1 otherwise
+     */
+    int firstRowFitting(int numSeats) {
+        return firstRowFitting(numSeats, 0);
+    }
+
+    /**
+     * @return the front most row at or behind fromRow having at least numSeats free seats next to each other, -1
+     * otherwise
+     */
+    int firstRowFitting(int numSeats, int fromRow) {
+        if (numSeats <= 0 || fromRow < 0) {
+            return -1;
+        }
+        return firstRow(1, 0, rowTreeLeaves, fromRow, numSeats);
+    }
+
+    /**
+     * Reads the tree without a lock. A row found here may have been taken by the time the caller locks it, callers
+     * check the row's own tree under its lock anyway.
+     */
+    private int firstRow(int node, int lo, int length, int fromRow, int numSeats) {
+        if (lo + length <= fromRow || run(rowTree.get(node)) < numSeats) {
+            return -1;
+        }
+        if (length == 1) {
+            return lo;
+        }
+        int half = length >> 1;
+        int row = firstRow(2 * node, lo, half, fromRow, numSeats);
+        return row >= 0 ? row : firstRow(2 * node + 1, lo + half, half, fromRow, numSeats);
+    }
+
+    /**
+     * @return the lowest column at or after fromCol where numSeats free seats start, -1 if there is none
+     */
+    int firstStartAtOrAfter(int row, int fromCol, int numSeats) {
+        if (numSeats <= 0 || fromCol < 0 || fromCol + numSeats > seatsPerRow || longestRun(row) < numSeats) {
+            return -1;
+        }
+        int base = row * 2 * rowLeaves;
+        int[] carry = new int[1];
+        int end = firstEnd(base, 1, 0, rowLeaves, fromCol, numSeats, carry);
+        return end < 0 ? -1 : end - numSeats + 1;
+    }
+
+    /**
+     * @return the highest column at or before toCol where numSeats free seats start, -1 if there is none
+     */
+    int lastStartAtOrBefore(int row, int toCol, int numSeats) {
+        if (numSeats <= 0 || toCol < 0 || numSeats > seatsPerRow || longestRun(row) < numSeats) {
+            return -1;
+        }
+        int base = row * 2 * rowLeaves;
+        int limit = Math.min(toCol + numSeats - 1, seatsPerRow - 1);
+        int[] carry = new int[1];
+        return lastStart(base, 1, 0, rowLeaves, limit, numSeats, carry);
+    }
+
+    /**
+     * @return the column right after the free run going through fromCol, i.e., the first taken column at or after it,
+     * seatsPerRow if the run reaches the end of the row
+     */
+    int runEnd(int row, int fromCol) {
+        int end = firstTaken(row * 2 * rowLeaves, 1, 0, rowLeaves, fromCol);
+        return end < 0 ? seatsPerRow : Math.min(end, seatsPerRow);
+    }
+
+    private int firstTaken(int base, int node, int lo, int length, int fromCol) {
+        if (lo + length <= fromCol || (lo >= fromCol && prefix[base + node] == length)) {
+            return -1;
+        }
+        if (length == 1) {
+            return lo;
+        }
+        int half = length >> 1;
+        int end = firstTaken(base, 2 * node, lo, half, fromCol);
+        return end >= 0 ? end : firstTaken(base, 2 * node + 1, lo + half, half, fromCol);
+    }
+
+    /**
+     * Walks the nodes covering [fromCol, end of row] left to right, carrying the free run that reaches into the next
+     * node, and returns the column where the first run of numSeats seats ends.
+     */
+    private int firstEnd(int base, int node, int lo, int length, int fromCol, int numSeats, int[] carry) {
+        if (lo + length <= fromCol) {
+            return -1;
+        }
+        if (lo >= fromCol) {
+            if (carry[0] + prefix[base + node] >= numSeats || longest[base + node] >= numSeats) {
+                return descendFirst(base, node, lo, length, numSeats, carry[0]);
+            }
+            carry[0] = prefix[base + node] == length ? carry[0] + length : suffix[base + node];
+            return -1;
+        }
+        int half = length >> 1;
+        int end = firstEnd(base, 2 * node, lo, half, fromCol, numSeats, carry);
+        return end >= 0 ? end : firstEnd(base, 2 * node + 1, lo + half, half, fromCol, numSeats, carry);
+    }
+
+    private int descendFirst(int base, int node, int lo, int length, int numSeats, int carry) {
+        while (length > 1) {
+            int half = length >> 1;
+            int left = 2 * node;
+            if (carry + prefix[base + left] >= numSeats || longest[base + left] >= numSeats) {
+                node = left;
+            } else {
+                carry = prefix[base + left] == half ? carry + half : suffix[base + left];
+                node = left + 1;
+                lo += half;
+            }
+            length = half;
+        }
+        return lo;
+    }
+
+    /**
+     * Mirror image of {@link #firstEnd}: walks the nodes covering [0, toCol] right to left and returns the column
+     * where the last run of numSeats seats starts.
+     */
+    private int lastStart(int base, int node, int lo, int length, int toCol, int numSeats, int[] carry) {
+        if (lo > toCol) {
+            return -1;
+        }
+        if (lo + length - 1 <= toCol) {
+            if (carry[0] + suffix[base + node] >= numSeats || longest[base + node] >= numSeats) {
+                return descendLast(base, node, lo, length, numSeats, carry[0]);
+            }
+            carry[0] = suffix[base + node] == length ? carry[0] + length : prefix[base + node];
+            return -1;
+        }
+        int half = length >> 1;
+        int start = lastStart(base, 2 * node + 1, lo + half, half, toCol, numSeats, carry);
+        return start >= 0 ? start : lastStart(base, 2 * node, lo, half, toCol, numSeats, carry);
+    }
+
+    private int descendLast(int base, int node, int lo, int length, int numSeats, int carry) {
+        while (length > 1) {
+            int half = length >> 1;
+            int right = 2 * node + 1;
+            if (carry + suffix[base + right] >= numSeats || longest[base + right] >= numSeats) {
+                node = right;
+                lo += half;
+            } else {
+                carry = suffix[base + right] == half ? carry + half : prefix[base + right];
+                node = right - 1;
+            }
+            length = half;
+        }
+        return lo;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * HoldRequest represents one customer's request to find and hold seats, as queued up for a batch hold.
+ */
+public class HoldRequest {
+
+    private final int numSeats;
+    /**
+     * The customers email.
+     */
+    private final String customerEmail;
+
+    /**
+     * Constructor
+     * @param numSeats the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     */
+    public HoldRequest(int numSeats, String customerEmail) {
+        this.numSeats = numSeats;
+        this.customerEmail = checkNotNull(customerEmail, "Please provide a valid email address");
+    }
+
+    /**
+     * @return the number of seats to find and hold
+     */
+    public int getNumSeats() {
+        return numSeats;
+    }
+
+    /**
+     * Gets the customer Email
+     * @return
+     */
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+}
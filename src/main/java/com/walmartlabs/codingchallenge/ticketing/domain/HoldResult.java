@@ -0,0 +1,66 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+
+/**
+ * HoldResult is the outcome of one request in a batch hold: either the SeatHold that was created or the reason why no
+ * seats could be held.
+ */
+public class HoldResult {
+
+    private final HoldRequest request;
+    private final SeatHold seatHold;
+    private final String failure;
+
+    private HoldResult(HoldRequest request, SeatHold seatHold, String failure) {
+        this.request = request;
+        this.seatHold = seatHold;
+        this.failure = failure;
+    }
+
+    /**
+     * @param request the request that got its seats
+     * @param seatHold the seats held for it
+     * @return a successful result
+     */
+    public static HoldResult success(HoldRequest request, SeatHold seatHold) {
+        return new HoldResult(request, seatHold, null);
+    }
+
+    /**
+     * @param request the request that didn't get any seats
+     * @param failure why the request failed
+     * @return a failed result
+     */
+    public static HoldResult failure(HoldRequest request, String failure) {
+        return new HoldResult(request, null, failure);
+    }
+
+    /**
+     * @return true if seats were held for the request
+     */
+    public boolean isSuccess() {
+        return seatHold != null;
+    }
+
+    /**
+     * @return the request this is the result of
+     */
+    public HoldRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the seats held for the request, null if it failed
+     */
+    public SeatHold getSeatHold() {
+        return seatHold;
+    }
+
+    /**
+     * @return why the request failed, null if it succeeded
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds a rectangular block of free seats over adjacent rows for a group that no single row can take: h rows of w
+ * seats in the same columns, the back row taking whatever is left of the group.
+ *
+ * The fewest rows are tried first, so blocks are as wide as they can be. For a given shape only rows whose longest
+ * free run is at least w can be part of the block, so the tree over rows skips ahead to the next such row, and the
+ * candidate rows are intersected through the free seat bitmaps of the free run index a word at a time. The front most
+ * block wins, at its best rated columns. Blocks stay within a section, the columns of different sections don't line up.
+ *
+ * Rows and columns are zero based. The caller must keep the free run index from changing meanwhile.
+ */
+class RectangleFinder {
+
+    private final FreeRunIndex freeRuns;
+    private final int rows;
+    private final int seatsPerRow;
+    private final WindowRating windowRating;
+
+    /**
+     * Section of every row
+     */
+    private final int[] sectionOfRow;
+
+    RectangleFinder(FreeRunIndex freeRuns, int rows, int seatsPerRow, WindowRating windowRating, int[] sectionOfRow) {
+        this.freeRuns = freeRuns;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.windowRating = windowRating;
+        this.sectionOfRow = sectionOfRow;
+    }
+
+    /**
+     * @param maxRows the most rows the block may span
+     * @return the block row by row as {row, start, length}, or an empty list if there is no such block
+     */
+    List<int[]> find(int numSeats, int maxRows) {
+
+        long[] common = new long[freeRuns.rowWords()];
+        int minRows = Math.max(2, (numSeats + seatsPerRow - 1) / seatsPerRow);
+        for (int height = minRows; height <= Math.min(maxRows, rows); height++) {
+            int width = (numSeats + height - 1) / height;
+            int backRowSeats = numSeats - (height - 1) * width;
+            if (backRowSeats <= 0) {
+                // A shorter block takes this group as well
+                continue;
+            }
+
+            int top = freeRuns.firstRowFitting(width);
+            while (top >= 0 && top + height <= rows) {
+                if (sectionOfRow[top] != sectionOfRow[top + height - 1]) {
+                    top = freeRuns.firstRowFitting(width, top + 1);
+                    continue;
+                }
+                int blocked = firstRowShorterThan(top, height, width);
+                if (blocked >= 0) {
+                    top = freeRuns.firstRowFitting(width, blocked + 1);
+                    continue;
+                }
+                int start = bestStart(top, height, width, common);
+                if (start >= 0) {
+                    return block(top, height, width, start, backRowSeats);
+                }
+                top = freeRuns.firstRowFitting(width, top + 1);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * @return the first row of the block whose longest run is shorter than width, -1 if there is none
+     */
+    private int firstRowShorterThan(int top, int height, int width) {
+        for (int row = top; row < top + height; row++) {
+            if (freeRuns.longestRun(row) < width) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Intersects the free seats of the rows and picks the best rated start column of width seats free in all of them.
+     *
+     * @return the start column, -1 if the rows have no such columns in common
+     */
+    private int bestStart(int top, int height, int width, long[] common) {
+
+        for (int word = 0; word < common.length; word++) {
+            long bits = -1L;
+            for (int row = top; row < top + height; row++) {
+                bits &= freeRuns.freeWord(row, word);
+            }
+            common[word] = bits;
+        }
+
+        int idealStart = windowRating.idealStart(top, width);
+        int bestStart = -1;
+        double bestRating = Double.MAX_VALUE;
+        for (int runStart = nextSetBit(common, 0); runStart >= 0; ) {
+            int runEnd = nextClearBit(common, runStart);
+            if (runEnd - runStart >= width) {
+                int start = Math.max(runStart, Math.min(idealStart, runEnd - width));
+                double rating = 0;
+                for (int row = top; row < top + height; row++) {
+                    rating += windowRating.of(row, start, width);
+                }
+                if (rating < bestRating) {
+                    bestRating = rating;
+                    bestStart = start;
+                }
+            }
+            runStart = nextSetBit(common, runEnd);
+        }
+        return bestStart;
+    }
+
+    private List<int[]> block(int top, int height, int width, int start, int backRowSeats) {
+        List<int[]> blocks = new ArrayList<>();
+        for (int row = top; row < top + height - 1; row++) {
+            blocks.add(new int[]{row, start, width});
+        }
+        int idealStart = windowRating.idealStart(top + height - 1, backRowSeats);
+        int backStart = Math.max(start, Math.min(idealStart, start + width - backRowSeats));
+        blocks.add(new int[]{top + height - 1, backStart, backRowSeats});
+        return blocks;
+    }
+
+    /**
+     * @return the first column at or after fromCol that is set, -1 if there is none
+     */
+    private int nextSetBit(long[] bits, int fromCol) {
+        int word = fromCol >>> 6;
+        if (fromCol >= seatsPerRow) {
+            return -1;
+        }
+        long current = bits[word] & (-1L << fromCol);
+        while (current == 0) {
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+        int col = (word << 6) + Long.numberOfTrailingZeros(current);
+        return col < seatsPerRow ? col : -1;
+    }
+
+    /**
+     * @return the first column at or after fromCol that is clear, seatsPerRow if there is none
+     */
+    private int nextClearBit(long[] bits, int fromCol) {
+        int word = fromCol >>> 6;
+        long current = ~bits[word] & (-1L << fromCol);
+        while (current == 0) {
+            if (++word == bits.length) {
+                return seatsPerRow;
+            }
+            current = ~bits[word];
+        }
+        return Math.min((word << 6) + Long.numberOfTrailingZeros(current), seatsPerRow);
+    }
+
+}
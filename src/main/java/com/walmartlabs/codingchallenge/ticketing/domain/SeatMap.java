@@ -0,0 +1,116 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A compact encoding of the seat map of one venue version, made to be served to many clients as is. The encoding is
+ * [version][rows][seats per row] followed by every row in (seats per row + 3) / 4 bytes, two bits per seat with the
+ * {@link AvailabilitySnapshot} state of the seat, four seats per byte starting at the low bits.
+ *
+ * The venue caches the map of its latest version. The next version is encoded from the one before by copying it and
+ * packing only the rows whose snapshot row changed, so a map costs a copy of a quarter byte per seat plus the changed
+ * rows, and nothing at all while the venue doesn't change.
+ */
+public final class SeatMap {
+
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES * 2;
+
+    private final AvailabilitySnapshot snapshot;
+    private final byte[] encoded;
+    private final int rowBytes;
+
+    private SeatMap(AvailabilitySnapshot snapshot, byte[] encoded) {
+        this.snapshot = snapshot;
+        this.encoded = encoded;
+        this.rowBytes = (snapshot.getSeatsPerRow() + 3) >>> 2;
+    }
+
+    /**
+     * @return the map of the given snapshot, every row packed
+     */
+    static SeatMap of(AvailabilitySnapshot snapshot) {
+        int rowBytes = (snapshot.getSeatsPerRow() + 3) >>> 2;
+        byte[] encoded = new byte[HEADER_SIZE + snapshot.getRows() * rowBytes];
+        ByteBuffer.wrap(encoded).putLong(snapshot.getVersion()).putInt(snapshot.getRows())
+                .putInt(snapshot.getSeatsPerRow());
+        for (int row = 0; row < snapshot.getRows(); row++) {
+            pack(snapshot.row(row), encoded, HEADER_SIZE + row * rowBytes);
+        }
+        return new SeatMap(snapshot, encoded);
+    }
+
+    /**
+     * @return the map of a later snapshot of the same venue, packing only the rows that changed since this one
+     */
+    SeatMap next(AvailabilitySnapshot nextSnapshot) {
+        if (nextSnapshot.getVersion() == snapshot.getVersion()) {
+            return this;
+        }
+        byte[] nextEncoded = encoded.clone();
+        ByteBuffer.wrap(nextEncoded).putLong(nextSnapshot.getVersion());
+        for (int row = 0; row < snapshot.getRows(); row++) {
+            if (nextSnapshot.row(row) != snapshot.row(row)) {
+                pack(nextSnapshot.row(row), nextEncoded, HEADER_SIZE + row * rowBytes);
+            }
+        }
+        return new SeatMap(nextSnapshot, nextEncoded);
+    }
+
+    private static void pack(AvailabilitySnapshot.Row row, byte[] encoded, int offset) {
+        int seatsPerRow = row.size();
+        for (int first = 0; first < seatsPerRow; first += 4) {
+            int packed = 0;
+            for (int col = first; col < Math.min(first + 4, seatsPerRow); col++) {
+                packed |= row.state(col) << ((col - first) << 1);
+            }
+            encoded[offset + (first >>> 2)] = (byte) packed;
+        }
+    }
+
+    /**
+     * @return the venue version this map shows
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * @return the state of the seat as decoded from the map, one of the {@link AvailabilitySnapshot} states
+     */
+    public byte getState(int seatId) {
+        int seatsPerRow = snapshot.getSeatsPerRow();
+        checkArgument(seatId > 0 && seatId <= snapshot.getRows() * seatsPerRow, "No such seat: %s", seatId);
+        int row = (seatId - 1) / seatsPerRow;
+        int col = (seatId - 1) % seatsPerRow;
+        return (byte) ((encoded[HEADER_SIZE + row * rowBytes + (col >>> 2)] >>> ((col & 3) << 1)) & 3);
+    }
+
+    /**
+     * @return the encoded map, read only and shared by every caller
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the map one row per line, A for available, H for held and R for reserved seats, blank where there is no
+     * seat
+     */
+    @Override
+    public String toString() {
+        int rows = snapshot.getRows();
+        int seatsPerRow = snapshot.getSeatsPerRow();
+        StringBuilder sb = new StringBuilder(rows * (seatsPerRow + 1));
+        for (int seatId = 1; seatId <= rows * seatsPerRow; seatId++) {
+            sb.append("AHR ".charAt(getState(seatId)));
+            if (seatId % seatsPerRow == 0) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A compact store for the state of every seat in a venue: available, held until some time, or reserved. It keeps the
+ * state in bitsets and primitive arrays indexed by seat id, instead of one object (and one Calendar) per seat.
+ * Row and column of a seat are derived from its id by the venue, so they are not stored here.
+ *
+ * Seat ids are 1 based, same as in the venue. The held and reserved bits are updated with CAS because neighbouring
+ * seats share a word and may be guarded by different row locks, everything else about a seat is expected to be
+ * guarded by the lock of its row.
+ */
+class SeatStore {
+
+    /**
+     * Expiration value for seats that are not held
+     */
+    static final long NO_EXPIRATION = 0L;
+
+    /**
+     * Seats that are held, one bit per seat
+     */
+    private final AtomicLongArray held;
+
+    /**
+     * Seats that are reserved, one bit per seat
+     */
+    private final AtomicLongArray reserved;
+
+    /**
+     * Epoch millis at which the hold on a seat expires
+     */
+    private final long[] expires;
+
+    /**
+     * Seat ratings
+     */
+    private final float[] ratings;
+
+
+    /**
+     * Constructor with the rating of every seat, ratings[0] being the rating of seat 1.
+     */
+    SeatStore(float[] ratings) {
+        this.ratings = ratings;
+        this.held = new AtomicLongArray((ratings.length + 63) >>> 6);
+        this.reserved = new AtomicLongArray((ratings.length + 63) >>> 6);
+        this.expires = new long[ratings.length];
+    }
+
+    /**
+     * Constructor restoring a store from its raw state, see {@link #heldWords()} and {@link #reservedWords()}.
+     */
+    SeatStore(float[] ratings, long[] heldWords, long[] reservedWords, long[] expires) {
+        this.ratings = ratings;
+        this.held = new AtomicLongArray(heldWords);
+        this.reserved = new AtomicLongArray(reservedWords);
+        this.expires = expires;
+    }
+
+    /**
+     * @return the number of seats in this store
+     */
+    int size() {
+        return ratings.length;
+    }
+
+    /**
+     * Check if seat is available, i.e. neither held nor reserved. Holds are never expired here, only the service's
+     * expiration wheel releases them.
+     */
+    boolean isAvailable(int seatId) {
+
+        int index = seatId - 1;
+        return !(get(held, index) || get(reserved, index));
+    }
+
+    /**
+     * Changes the state of the seat to being Held
+     */
+    void setHold(int seatId, boolean isHeld) {
+
+        if (isHeld) {
+            checkState(isAvailable(seatId), "Cannot hold an unavailable seat");
+        }
+        set(held, seatId - 1, isHeld);
+    }
+
+    /**
+     * Marks the seat to expire from hold state and return back to available state at this time
+     *
+     * @param expiresAt epoch millis, or {@link #NO_EXPIRATION}
+     */
+    void setExpires(int seatId, long expiresAt) {
+        expires[seatId - 1] = expiresAt;
+    }
+
+    /**
+     * @return the epoch millis the hold on this seat expires at, {@link #NO_EXPIRATION} if it doesn't
+     */
+    long getExpires(int seatId) {
+        return expires[seatId - 1];
+    }
+
+    /**
+     * Indicates if the seat is reserved or not
+     */
+    boolean isReserved(int seatId) {
+        return get(reserved, seatId - 1);
+    }
+
+    /**
+     * Changes the state of the seat to reserved
+     */
+    void setReserved(int seatId, boolean isReserved) {
+
+        if (isReserved) {
+            checkState(!get(reserved, seatId - 1), "Seat is already reserved");
+        }
+        set(reserved, seatId - 1, isReserved);
+    }
+
+    /**
+     * Rating of the seat
+     */
+    float getRating(int seatId) {
+        return ratings[seatId - 1];
+    }
+
+    /**
+     * @return a copy of the held bits, 64 seats per word
+     */
+    long[] heldWords() {
+        return words(held);
+    }
+
+    /**
+     * @return a copy of the reserved bits, 64 seats per word
+     */
+    long[] reservedWords() {
+        return words(reserved);
+    }
+
+    private static long[] words(AtomicLongArray bits) {
+        long[] words = new long[bits.length()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = bits.get(i);
+        }
+        return words;
+    }
+
+    private static boolean get(AtomicLongArray bits, int index) {
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    private static void set(AtomicLongArray bits, int index, boolean value) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        long updated;
+        do {
+            current = bits.get(word);
+            updated = value ? current | mask : current & ~mask;
+        } while (current != updated && !bits.compareAndSet(word, current, updated));
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Seats a group that no single row can take in as few blocks as possible, in one pass over a priority queue of free
+ * runs.
+ *
+ * The queue starts out with one entry per row, keyed by the longest run of that row, and a row is only broken up into
+ * its runs once it reaches the head of the queue. Runs come out longest first (front rows first, then best rated), so
+ * every run shorter than what is left of the group is taken whole; the fewest blocks are the longest runs. Once the
+ * longest run left can take the rest of the group, the last block goes to the front most run that can, at its best
+ * rated window. Since all other blocks are whole runs, skipping them is enough and no seats need to be excluded.
+ *
+ * Rows and columns are zero based. The caller must keep the free run index from changing meanwhile.
+ */
+class SplitGroupAllocator {
+
+    /**
+     * A free run, or a whole row that has not been broken up into its runs yet (start -1, length of its longest run)
+     */
+    private static final class Run {
+        final int row;
+        final int start;
+        final int length;
+        final double rating;
+
+        Run(int row, int start, int length, double rating) {
+            this.row = row;
+            this.start = start;
+            this.length = length;
+            this.rating = rating;
+        }
+    }
+
+    private static final Comparator<Run> LONGEST_FIRST = Comparator.<Run>comparingInt(run -> -run.length)
+            .thenComparingInt(run -> run.row)
+            .thenComparingDouble(run -> run.rating)
+            .thenComparingInt(run -> run.start);
+
+    private final FreeRunIndex freeRuns;
+    private final int rows;
+    private final WindowRating windowRating;
+
+    SplitGroupAllocator(FreeRunIndex freeRuns, int rows, WindowRating windowRating) {
+        this.freeRuns = freeRuns;
+        this.rows = rows;
+        this.windowRating = windowRating;
+    }
+
+    /**
+     * @return the blocks as {row, start, length}, or an empty list if the venue doesn't have numSeats free seats
+     */
+    List<int[]> allocate(int numSeats) {
+
+        PriorityQueue<Run> queue = new PriorityQueue<>(LONGEST_FIRST);
+        for (int row = 0; row < rows; row++) {
+            int longest = freeRuns.longestRun(row);
+            if (longest > 0) {
+                queue.add(new Run(row, -1, longest, 0));
+            }
+        }
+
+        List<int[]> blocks = new ArrayList<>();
+        int remaining = numSeats;
+        while (remaining > 0) {
+            Run run = nextRun(queue);
+            if (run == null) {
+                return new ArrayList<>();
+            }
+            if (run.length < remaining) {
+                blocks.add(new int[]{run.row, run.start, run.length});
+                remaining -= run.length;
+            } else {
+                blocks.add(lastBlock(blocks, remaining));
+                remaining = 0;
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Polls the longest run, breaking up rows that come first until a run does.
+     */
+    private Run nextRun(PriorityQueue<Run> queue) {
+        Run head = queue.poll();
+        while (head != null && head.start < 0) {
+            int start = freeRuns.firstStartAtOrAfter(head.row, 0, 1);
+            while (start >= 0) {
+                int end = freeRuns.runEnd(head.row, start);
+                queue.add(new Run(head.row, start, end - start, windowRating.of(head.row, start, end - start)));
+                start = freeRuns.firstStartAtOrAfter(head.row, end, 1);
+            }
+            head = queue.poll();
+        }
+        return head;
+    }
+
+    /**
+     * The last block goes to the front most row having a run of at least numSeats that is not a block already, at the
+     * best rated window of those runs. Rows are walked front to back and only their runs that are long enough.
+     */
+    private int[] lastBlock(List<int[]> blocks, int numSeats) {
+        for (int row = freeRuns.firstRowFitting(numSeats); row >= 0; row = freeRuns.firstRowFitting(numSeats, row + 1)) {
+            int bestStart = -1;
+            double bestRating = Double.MAX_VALUE;
+            int start = freeRuns.firstStartAtOrAfter(row, 0, numSeats);
+            while (start >= 0) {
+                int end = freeRuns.runEnd(row, start);
+                if (!isBlock(blocks, row, start)) {
+                    int windowStart = bestStart(row, start, end, numSeats);
+                    double rating = windowRating.of(row, windowStart, numSeats);
+                    if (rating < bestRating) {
+                        bestRating = rating;
+                        bestStart = windowStart;
+                    }
+                }
+                start = freeRuns.firstStartAtOrAfter(row, end, numSeats);
+            }
+            if (bestStart >= 0) {
+                return new int[]{row, bestStart, numSeats};
+            }
+        }
+        throw new IllegalStateException("The longest free run disappeared from the free run index");
+    }
+
+    private static boolean isBlock(List<int[]> blocks, int row, int start) {
+        for (int[] block : blocks) {
+            if (block[0] == row && block[1] == start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ratings grow away from the center of the row, so the best window in a run is the one closest to the centered
+     * window.
+     */
+    private int bestStart(int row, int runStart, int runEnd, int numSeats) {
+        int idealStart = windowRating.idealStart(row, numSeats);
+        return Math.max(runStart, Math.min(idealStart, runEnd - numSeats));
+    }
+
+}
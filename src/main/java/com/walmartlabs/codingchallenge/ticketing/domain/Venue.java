@@ -1,38 +1,257 @@
 package com.walmartlabs.codingchallenge.ticketing.domain;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 
 /**
  * A venue similar to a theatre. The layout of this venue is more like a theatre.
+ *
+ * Venues of any shape are made from a {@link VenueLayout}: its rows become rows of a grid as wide as the longest one,
+ * and the places of the grid that are no seat (gaps, aisles, the ends of short rows) are never free. Seat ids number
+ * the places of the grid, so they don't run on over the gaps. Every section of the layout is a range of rows with its
+ * own available count, and searches in a section only look at its rows that can fit the group.
+ *
+ * Seat state is guarded row by row, so holds, reservations and releases in different rows can run in parallel. Every
+ * change publishes the rows it changed before they are unlocked, and readers that must not lock get an
+ * {@link AvailabilitySnapshot} put together from them.
  */
 public class Venue {
 
 
+    /**
+     * Name of the one section of a venue made without a layout
+     */
+    public static final String WHOLE_VENUE = "Venue";
+
     private final int id;
     private final int rows;
     private final int seatsPerRow;
 
-    private final Map<Integer, Seat> seats;
+    /**
+     * Number of places in the grid that are seats
+     */
+    private final int seatCount;
+
+    private final List<VenueLayout.Section> sections;
+    private final int[] sectionOfRow;
+
+    /**
+     * Number of seats per section that are neither held nor reserved
+     */
+    private final AtomicIntegerArray sectionAvailableSeats;
+
+    /**
+     * Column of the first plus column of the last seat of every row, i.e. twice the center of its seats
+     */
+    private final int[] rowCenters;
+
+    /**
+     * State and rating of every seat, indexed by seat id
+     */
+    private final SeatStore seats;
+
+    /**
+     * Contiguous free seats per row, kept in step with seat holds, reservations and releases.
+     */
+    private final FreeRunIndex freeRuns;
+
+    /**
+     * Number of seats that are neither held nor reserved, i.e., free seats in the free run index.
+     */
+    private final AtomicInteger availableSeats;
+
+    /**
+     * Readers that keep running into changes of several rows lock all rows after this many attempts
+     */
+    private static final int SNAPSHOT_ATTEMPTS = 8;
+
+    /**
+     * The latest snapshot row of every row, replaced by whoever changes seats of the row while still holding its lock
+     */
+    private final AtomicReferenceArray<AvailabilitySnapshot.Row> publishedRows;
+
+    /**
+     * Number of rows published so far, counted before they are published, i.e. the version of the next snapshot once
+     * they are
+     */
+    private final LongAdder rowChanges = new LongAdder();
+
+    /**
+     * Changes to several rows started and done, a snapshot is only consistent if none was in between
+     */
+    private final LongAdder multiRowChangesStarted = new LongAdder();
+    private final LongAdder multiRowChangesDone = new LongAdder();
+
+    /**
+     * The most recent availability snapshot put together, brought up to date by whoever reads it next
+     */
+    private final AtomicReference<AvailabilitySnapshot> availability;
+
+    /**
+     * The seat map of a recent version, brought up to date by whoever reads it next
+     */
+    private final AtomicReference<SeatMap> seatMap;
+
+    /**
+     * One lock per row, guarding the seats of that row and their part of the free run index
+     */
+    private final ReentrantLock[] rowLocks;
+
+    /**
+     * Prefix sums of the seat ratings, seatsPerRow + 1 entries per row, so the rating of any window is one subtraction
+     */
+    private final double[] ratingPrefix;
+
+    /**
+     * True if every row rates its columns alike up to a constant, so windows rank the same in every row
+     */
+    private final boolean rowsRankAlike;
+
+    /**
+     * Window start columns ranked best rated first (ties by column), per block size. Only kept if rows rank alike.
+     */
+    private final ConcurrentMap<Integer, int[]> rankedStarts = new ConcurrentHashMap<>();
+
+    private final WindowRating windowRating = new WindowRating() {
+        @Override
+        public double of(int row, int start, int numSeats) {
+            return getWindowRating(row, start, numSeats);
+        }
+
+        @Override
+        public int idealStart(int row, int numSeats) {
+            return getIdealStart(row, numSeats);
+        }
+    };
 
     public Venue(int id, int rows, int seatsPerRow) {
+        this(id, rows, seatsPerRow, new SeatStore(getSeatRatings(rows, seatsPerRow)));
+    }
+
+    /**
+     * Constructor for a venue of the given layout, with every seat available.
+     */
+    public Venue(int id, VenueLayout layout) {
+        this(id, layout.getRows(), layout.getWidth(), new SeatStore(layout.seatRatings()), layout.getSections());
+    }
+
+    /**
+     * Constructor for a venue whose seats are in the given state already, the free run index and the available count
+     * are rebuilt from it.
+     */
+    Venue(int id, int rows, int seatsPerRow, SeatStore seats) {
+        this(id, rows, seatsPerRow, seats, Collections.singletonList(new VenueLayout.Section(WHOLE_VENUE, 0, rows)));
+    }
+
+    /**
+     * Same as {@link #Venue(int, int, int, SeatStore)} for a venue with sections. Places rated NaN are no seats.
+     */
+    Venue(int id, int rows, int seatsPerRow, SeatStore seats, List<VenueLayout.Section> sections) {
         this.id = id;
         this.rows = rows;
         this.seatsPerRow = seatsPerRow;
-        seats = new HashMap<>();
+        this.seats = seats;
 
+        int places = 0;
+        for (int seatId = 1; seatId <= seats.size(); seatId++) {
+            places += isSeat(seatId) ? 1 : 0;
+        }
+        seatCount = places;
+        long[] taken = seats.heldWords();
+        long[] reserved = seats.reservedWords();
+        int available = seatCount;
+        for (int i = 0; i < taken.length; i++) {
+            taken[i] |= reserved[i];
+            available -= Long.bitCount(taken[i]);
+        }
+        freeRuns = new FreeRunIndex(rows, seatsPerRow,
+                index -> (taken[index >>> 6] & (1L << index)) == 0 && isSeat(index + 1));
+        availableSeats = new AtomicInteger(available);
+
+        checkArgument(!sections.isEmpty(), "A venue needs at least one section");
+        this.sections = Collections.unmodifiableList(new ArrayList<>(sections));
+        sectionOfRow = new int[rows];
+        int nextRow = 0;
+        for (int section = 0; section < sections.size(); section++) {
+            VenueLayout.Section range = sections.get(section);
+            checkArgument(range.getFirstRow() == nextRow && nextRow + range.getRows() <= rows,
+                    "Sections must cover the rows of the venue in order");
+            nextRow += range.getRows();
+            Arrays.fill(sectionOfRow, range.getFirstRow(), nextRow, section);
+        }
+        checkArgument(nextRow == rows, "Sections must cover the rows of the venue in order");
 
-        int counter = 1;
+        rowLocks = new ReentrantLock[rows];
+        for (int i = 0; i < rows; i++) {
+            rowLocks[i] = new ReentrantLock();
+        }
+
+        ratingPrefix = new double[rows * (seatsPerRow + 1)];
+        boolean rankAlike = true;
+        for (int row = 0; row < rows; row++) {
+            int base = row * (seatsPerRow + 1);
+            int firstSeatId = row * seatsPerRow + 1;
+            for (int col = 0; col < seatsPerRow; col++) {
+                float rating = seats.getRating(firstSeatId + col);
+                ratingPrefix[base + col + 1] = ratingPrefix[base + col] + (Float.isNaN(rating) ? 0 : rating);
+                rankAlike &= rating - seats.getRating(firstSeatId) == seats.getRating(col + 1) - seats.getRating(1);
+            }
+        }
+        rowsRankAlike = rankAlike;
+
+        rowCenters = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            int first = 0;
+            int last = seatsPerRow - 1;
+            while (first < last && !isSeat(row * seatsPerRow + first + 1)) {
+                first++;
+            }
+            while (last > first && !isSeat(row * seatsPerRow + last + 1)) {
+                last--;
+            }
+            rowCenters[row] = first + last;
+        }
+
+        AvailabilitySnapshot.Row[] snapshotRows = new AvailabilitySnapshot.Row[rows];
+        sectionAvailableSeats = new AtomicIntegerArray(sections.size());
+        for (int row = 0; row < rows; row++) {
+            snapshotRows[row] = snapshotRow(row);
+        }
+        publishedRows = new AtomicReferenceArray<>(snapshotRows);
+        availability = new AtomicReference<>(AvailabilitySnapshot.of(seatsPerRow, snapshotRows));
+        for (int row = 0; row < rows; row++) {
+            sectionAvailableSeats.addAndGet(sectionOfRow[row], availability.get().getFreeSeats(row));
+        }
+        seatMap = new AtomicReference<>(SeatMap.of(availability.get()));
+
+    }
+
+    private static float[] getSeatRatings(int rows, int seatsPerRow) {
+
+        float[] ratings = new float[rows * seatsPerRow];
+        int counter = 0;
         for (int i = 1; i <= rows; i++) {
             for (int j = 1; j <= seatsPerRow; j++) {
-                float seatRating = getSeatRating(j, i, seatsPerRow);
-                seats.put(counter, new Seat(counter, i, j, seatRating));
-                counter++;
+                ratings[counter++] = getSeatRating(j, i, seatsPerRow);
             }
         }
-
+        return ratings;
     }
 
-    private float getSeatRating(int seatIndex, int rowIndex, int seatsPerRow) {
+    private static float getSeatRating(int seatIndex, int rowIndex, int seatsPerRow) {
 
         float seatScore = Math.abs(((float) (seatsPerRow - 1) / 2) - (seatIndex - 1));
         float rowScore = (float) rowIndex;
@@ -40,97 +259,647 @@ public class Venue {
 
     }
 
-    public synchronized int getAvailableSeatCount() {
+    /**
+     * The count is maintained on every hold, reservation and release, so this doesn't need to look at any seat or take
+     * any lock.
+     *
+     * @return the number of seats that are neither held nor reserved
+     */
+    public int getAvailableSeatCount() {
+        return availableSeats.get();
+    }
+
+
+    /**
+     * Puts the snapshot together from the published rows if any changed since the cached one, copying only the
+     * references of the rows that did. A change to several rows shows up in it with all of them or not at all: if one
+     * was underway, the rows are read again, and only a reader that keeps running into them locks all rows.
+     *
+     * @return the latest availability snapshot, without taking any lock but in rare cases
+     */
+    public AvailabilitySnapshot getAvailabilitySnapshot() {
+        AvailabilitySnapshot cached = availability.get();
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+            if (rowChanges.sum() == cached.getVersion()) {
+                return cached;
+            }
+            long done = multiRowChangesDone.sum();
+            AvailabilitySnapshot latest = cached.withLatest(publishedRows);
+            if (multiRowChangesStarted.sum() == done) {
+                return cache(latest);
+            }
+        }
+
+        int[] allRows = lockAllRows();
+        try {
+            return cache(cached.withLatest(publishedRows));
+        } finally {
+            unlockRows(allRows);
+        }
+    }
+
+    private AvailabilitySnapshot cache(AvailabilitySnapshot latest) {
+        availability.accumulateAndGet(latest,
+                (current, next) -> next.getVersion() > current.getVersion() ? next : current);
+        return latest;
+    }
+
+    /**
+     * The map is encoded once per venue version, only re-packing the rows that changed since the cached one. Readers
+     * racing on a new version may encode it twice, which is cheaper than making them wait.
+     *
+     * @return the compact seat map of the latest version, without taking any lock
+     */
+    public SeatMap getSeatMap() {
+        SeatMap cached = seatMap.get();
+        SeatMap latest = cached.next(getAvailabilitySnapshot());
+        if (latest != cached) {
+            seatMap.accumulateAndGet(latest,
+                    (current, next) -> next.getVersion() > current.getVersion() ? next : current);
+        }
+        return latest;
+    }
+
+    /**
+     * @return the epoch millis at which the hold on the given seat expires, 0 if the seat isn't held
+     */
+    public long getHoldExpiration(int seatId) {
+        return seats.isReserved(seatId) ? 0L : seats.getExpires(seatId);
+    }
+
+    /**
+     * @return the number of bytes {@link #writeTo(ByteBuffer)} needs
+     */
+    public int snapshotSize() {
+        int places = seats.size();
+        int words = (places + 63) >>> 6;
+        int size = Integer.BYTES * 5 + places * (Float.BYTES + Long.BYTES) + words * Long.BYTES * 2;
+        for (VenueLayout.Section section : sections) {
+            size += Integer.BYTES * 3 + section.getName().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
 
-        return (int) seats.values().stream().filter(s -> s.isAvailable()).count();
+    /**
+     * Writes layout, ratings and the state of every seat as [id][rows][seats per row][ratings][word count]
+     * [held bits][reserved bits][hold expirations][section count] and every section as [first row][rows][name length]
+     * [name]. Places that are no seat keep their NaN rating. All rows are locked meanwhile, so the image is consistent
+     * even with holds going on.
+     *
+     * @param buffer a buffer with at least {@link #snapshotSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+
+        int[] allRows = lockAllRows();
+        try {
+            buffer.putInt(id).putInt(rows).putInt(seatsPerRow);
+            for (int seatId = 1; seatId <= seats.size(); seatId++) {
+                buffer.putFloat(seats.getRating(seatId));
+            }
+            long[] held = seats.heldWords();
+            buffer.putInt(held.length);
+            buffer.asLongBuffer().put(held);
+            buffer.position(buffer.position() + held.length * Long.BYTES);
+            buffer.asLongBuffer().put(seats.reservedWords());
+            buffer.position(buffer.position() + held.length * Long.BYTES);
+            for (int seatId = 1; seatId <= seats.size(); seatId++) {
+                buffer.putLong(seats.getExpires(seatId));
+            }
+            buffer.putInt(sections.size());
+            for (VenueLayout.Section section : sections) {
+                byte[] name = section.getName().getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(section.getFirstRow()).putInt(section.getRows()).putInt(name.length).put(name);
+            }
+        } finally {
+            unlockRows(allRows);
+        }
     }
 
+    /**
+     * Restores a venue written by {@link #writeTo(ByteBuffer)} without computing any rating.
+     *
+     * @param buffer a buffer positioned at the start of the venue, left positioned after it
+     * @return the restored venue
+     */
+    public static Venue readFrom(ByteBuffer buffer) {
+
+        int id = buffer.getInt();
+        int rows = buffer.getInt();
+        int seatsPerRow = buffer.getInt();
+        checkArgument(rows > 0 && seatsPerRow > 0, "Snapshot has an invalid venue layout");
+
+        float[] ratings = new float[rows * seatsPerRow];
+        buffer.asFloatBuffer().get(ratings);
+        buffer.position(buffer.position() + ratings.length * Float.BYTES);
+
+        long[] held = new long[buffer.getInt()];
+        long[] reserved = new long[held.length];
+        checkArgument(held.length == (ratings.length + 63) >>> 6, "Snapshot seat state doesn't match the venue layout");
+        buffer.asLongBuffer().get(held);
+        buffer.position(buffer.position() + held.length * Long.BYTES);
+        buffer.asLongBuffer().get(reserved);
+        buffer.position(buffer.position() + reserved.length * Long.BYTES);
+
+        long[] expires = new long[ratings.length];
+        buffer.asLongBuffer().get(expires);
+        buffer.position(buffer.position() + expires.length * Long.BYTES);
+
+        int sectionCount = buffer.getInt();
+        checkArgument(sectionCount > 0 && sectionCount <= rows, "Snapshot has an invalid number of sections");
+        List<VenueLayout.Section> sections = new ArrayList<>(sectionCount);
+        for (int i = 0; i < sectionCount; i++) {
+            int firstRow = buffer.getInt();
+            int sectionRows = buffer.getInt();
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            sections.add(new VenueLayout.Section(new String(name, StandardCharsets.UTF_8), firstRow, sectionRows));
+        }
+
+        return new Venue(id, rows, seatsPerRow, new SeatStore(ratings, held, reserved, expires), sections);
+    }
 
     /**
      * @return the total number of seats in the venue
      */
     public int getTotalSeats() {
-        return rows * seatsPerRow;
+        return seatCount;
+    }
+
+    /**
+     * @return the sections of the venue, best first, a single one for venues made without a layout
+     */
+    public List<VenueLayout.Section> getSections() {
+        return sections;
+    }
+
+    /**
+     * @param section index of the section in {@link #getSections()}
+     * @return the number of seats in the section that are neither held nor reserved
+     */
+    public int getAvailableSeatCount(int section) {
+        checkArgument(section >= 0 && section < sections.size(), "No such section: %s", section);
+        return sectionAvailableSeats.get(section);
+    }
+
+    /**
+     * Picks sequential seats in the given section, same as {@link #findSequentSeats}. Sections without that many
+     * available seats are turned down at once, otherwise only the rows of the section that can fit the group are
+     * looked at.
+     *
+     * @param section index of the section in {@link #getSections()}
+     * @return the seat ids, or an empty array if no row of the section has that many seats next to each other
+     */
+    public int[] findSequentSeatsInSection(int section, int numSeats) {
+
+        if (numSeats <= 0 || numSeats > seatsPerRow || getAvailableSeatCount(section) < numSeats) {
+            return new int[0];
+        }
+
+        VenueLayout.Section range = sections.get(section);
+        int endRow = range.getFirstRow() + range.getRows();
+        for (int row = freeRuns.firstRowFitting(numSeats, range.getFirstRow()); row >= 0 && row < endRow;
+             row = freeRuns.firstRowFitting(numSeats, row + 1)) {
+            int start;
+            rowLocks[row].lock();
+            try {
+                start = findBestStart(row, numSeats, Collections.emptySet());
+            } finally {
+                rowLocks[row].unlock();
+            }
+            if (start >= 0) {
+                return seatIds(row, start, numSeats);
+            }
+        }
+        return new int[0];
     }
 
     /**
-     * Picks sequential seats that belong to same row i.e., sequence doesn't flow across rows
+     * Picks sequential seats that belong to same row i.e., sequence doesn't flow across rows. The seats are not held,
+     * so callers racing with other holds on this venue have to be ready for {@link #holdSeats} to fail.
      *
      * @param excludeSeats
      * @return
      */
     public int[] findSequentSeats(int numSeats, List<Integer> excludeSeats) {
-        List<Integer> seatIds;
 
-        for (int i = 1; i <= rows; i++) {
-            seatIds = findSequentSeats(numSeats, i, excludeSeats);
-            if (seatIds.size() == numSeats) {
-                return seatIds.stream().mapToInt(s -> s).toArray();
+        if (numSeats <= 0 || numSeats > seatsPerRow) {
+            return new int[0];
+        }
+
+        Set<Integer> excluded = excludeSeats == null ? Collections.emptySet() : new HashSet<>(excludeSeats);
+        int row = freeRuns.firstRowFitting(numSeats);
+        while (row >= 0) {
+            int start;
+            rowLocks[row].lock();
+            try {
+                start = findBestStart(row, numSeats, excluded);
+            } finally {
+                rowLocks[row].unlock();
+            }
+            if (start >= 0) {
+                return seatIds(row, start, numSeats);
             }
+            row = freeRuns.firstRowFitting(numSeats, row + 1);
         }
 
         return new int[0];
     }
 
+    /**
+     * Picks seats for a group that no single row can take, in as few blocks as possible: every block but the last is a
+     * whole free run, longest first, and the last one is the best rated window of the front most run that can take the
+     * rest. All rows are locked meanwhile. The seats are not held, same as {@link #findSequentSeats}.
+     *
+     * @return the seat ids of every block, or no blocks if the venue doesn't have numSeats free seats
+     */
+    public int[][] findSplitSeats(int numSeats) {
+
+        if (numSeats <= 0) {
+            return new int[0][];
+        }
+
+        List<int[]> blocks;
+        int[] allRows = lockAllRows();
+        try {
+            blocks = new SplitGroupAllocator(freeRuns, rows, windowRating).allocate(numSeats);
+        } finally {
+            unlockRows(allRows);
+        }
+
+        return seatIds(blocks);
+    }
 
     /**
-     * Picks sequential seats from the given row i.e., sequence doesn't flow across rows
+     * Picks a rectangular block of seats over adjacent rows for a group that no single row can take: the same columns
+     * in every row, the back row taking whatever is left of the group. Blocks over fewer rows are preferred, then the
+     * front most one, at its best rated columns. All rows are locked meanwhile. The seats are not held, same as
+     * {@link #findSequentSeats}.
      *
-     * @param excludeSeats
-     * @return
+     * @param maxRows the most rows the block may span
+     * @return the seat ids of the block row by row, front to back, or no rows if there is no such block
      */
-    private List<Integer> findSequentSeats(int numSeats, int row, List<Integer> excludeSeats) {
+    public int[][] findAdjacentRowSeats(int numSeats, int maxRows) {
 
-        float minAverage = Float.MIN_VALUE;
-        List<Integer> sequentSeatIds = new ArrayList<>();
-        List<Integer> seatIds = new ArrayList<>();
+        if (numSeats <= 0 || maxRows < 2) {
+            return new int[0][];
+        }
+
+        List<int[]> blocks;
+        int[] allRows = lockAllRows();
+        try {
+            blocks = new RectangleFinder(freeRuns, rows, seatsPerRow, windowRating, sectionOfRow).find(numSeats, maxRows);
+        } finally {
+            unlockRows(allRows);
+        }
+        return seatIds(blocks);
+    }
+
+    /**
+     * @param blocks blocks as {row, start, length}
+     * @return the seat ids of every block
+     */
+    private int[][] seatIds(List<int[]> blocks) {
+        int[][] seatIds = new int[blocks.size()][];
+        for (int i = 0; i < seatIds.length; i++) {
+            int[] block = blocks.get(i);
+            seatIds[i] = seatIds(block[0], block[1], block[2]);
+        }
+        return seatIds;
+    }
 
-        row = (row - 1) * seatsPerRow;
+    /**
+     * Finds and holds sequential seats in one go, under the lock of the row they are found in. Rows that another
+     * thread is busy with are skipped at first in favour of the next fitting row, so concurrent holds spread over the
+     * venue instead of queueing up on the front row. Only when that finds nothing do we wait for the busy rows.
+     * Sections go best first and those with fewer available seats than the group are skipped whole.
+     *
+     * @return the held seats, or an empty array if no row has that many seats next to each other
+     */
+    public int[] holdSequentSeats(int numSeats, long holdTimeout) {
 
-        for (int i = 1; i <= (seatsPerRow - numSeats + 1); i++) {
-            float sum = 0.0f;
-            Boolean skip = false;
-            seatIds.clear();
+        if (numSeats <= 0 || numSeats > seatsPerRow) {
+            return new int[0];
+        }
 
-            for (int j = i; j < (i + numSeats); j++) {
-                if (excludeSeats != null && excludeSeats.contains((row + j))) {
-                    continue;
+        long expires = System.currentTimeMillis() + holdTimeout * 1000;
+        int[] seatIds = holdInFirstFittingRow(numSeats, expires, true);
+        return seatIds.length > 0 ? seatIds : holdInFirstFittingRow(numSeats, expires, false);
+    }
+
+    private int[] holdInFirstFittingRow(int numSeats, long expires, boolean skipBusyRows) {
+
+        int row = firstRowFitting(numSeats, 0);
+        while (row >= 0) {
+            ReentrantLock lock = rowLocks[row];
+            if (skipBusyRows && !lock.tryLock()) {
+                row = firstRowFitting(numSeats, row + 1);
+                continue;
+            } else if (!skipBusyRows) {
+                lock.lock();
+            }
+            try {
+                int start = findBestStart(row, numSeats, Collections.emptySet());
+                if (start >= 0) {
+                    int[] seatIds = seatIds(row, start, numSeats);
+                    for (int seatId : seatIds) {
+                        holdSeat(seatId, expires);
+                    }
+                    publish(new int[]{row});
+                    return seatIds;
                 }
-                Seat seat = seats.get(row + j);
-                if (seat.isAvailable()) {
-                    sum += seat.getRating();
-                    seatIds.add(seat.getSeatId());
-                } else {
-                    skip = true;
-                    break;
+            } finally {
+                lock.unlock();
+            }
+            row = firstRowFitting(numSeats, row + 1);
+        }
+        return new int[0];
+    }
+
+    /**
+     * @return the first row from the given one on that may fit the group, in a section with enough available seats,
+     * -1 if there is none
+     */
+    private int firstRowFitting(int numSeats, int fromRow) {
+
+        int row = freeRuns.firstRowFitting(numSeats, fromRow);
+        while (row >= 0 && sectionAvailableSeats.get(sectionOfRow[row]) < numSeats) {
+            VenueLayout.Section section = sections.get(sectionOfRow[row]);
+            row = freeRuns.firstRowFitting(numSeats, section.getFirstRow() + section.getRows());
+        }
+        return row;
+    }
+
+    private int[] seatIds(int row, int start, int numSeats) {
+        int firstSeatId = row * seatsPerRow + start + 1;
+        int[] seatIds = new int[numSeats];
+        for (int i = 0; i < numSeats; i++) {
+            seatIds[i] = firstSeatId + i;
+        }
+        return seatIds;
+    }
+
+    /**
+     * Picks the best rated start column for a block of seats in the given row, the caller must hold the row lock.
+     *
+     * @return zero based column where the block starts, -1 if the row can't fit the block
+     */
+    private int findBestStart(int row, int numSeats, Set<Integer> excludeSeats) {
+
+        if (freeRuns.longestRun(row) < numSeats) {
+            return -1;
+        }
+        if (excludeSeats.isEmpty()) {
+            return findBestStart(row, numSeats);
+        }
+
+        // Excluded seats are rare (split groups only). Walk the windows best rated first and take the first one that is
+        // free and doesn't touch them
+        if (rowsRankAlike) {
+            for (int start : rankedStarts.computeIfAbsent(numSeats, this::rankStarts)) {
+                if (freeRuns.firstStartAtOrAfter(row, start, numSeats) == start
+                        && !overlaps(row, start, numSeats, excludeSeats)) {
+                    return start;
                 }
             }
+            return -1;
+        }
 
-            if (!skip) {
-                float average = sum / numSeats;
-                if ((minAverage == Float.MIN_VALUE) || (average < minAverage)) {
-                    minAverage = average;
-                    sequentSeatIds = new ArrayList<>(seatIds);
+        // Otherwise walk the free blocks of the row and skip the ones touching them
+        int bestStart = -1;
+        double bestRating = Double.MAX_VALUE;
+        for (int start = freeRuns.firstStartAtOrAfter(row, 0, numSeats); start >= 0;
+             start = freeRuns.firstStartAtOrAfter(row, start + 1, numSeats)) {
+            if (!overlaps(row, start, numSeats, excludeSeats)) {
+                double rating = getWindowRating(row, start, numSeats);
+                if (rating < bestRating) {
+                    bestRating = rating;
+                    bestStart = start;
                 }
             }
         }
-        return sequentSeatIds;
+        return bestStart;
+    }
+
+    /**
+     * Ranks the start columns of every window of the given size, by the ratings of the front row.
+     */
+    private int[] rankStarts(int numSeats) {
+        return IntStream.rangeClosed(0, seatsPerRow - numSeats).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(start -> getWindowRating(0, start, numSeats))
+                        .thenComparingInt(start -> start))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private boolean overlaps(int row, int start, int numSeats, Set<Integer> seatIds) {
+        int firstSeatId = row * seatsPerRow + start + 1;
+        for (int seatId = firstSeatId; seatId < firstSeatId + numSeats; seatId++) {
+            if (seatIds.contains(seatId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the best rated start column for a block of seats in the given row. Ratings grow as we move away from the
+     * center, so the block is best around the ideal (centered) start and only the closest free blocks on either side
+     * of it need to be compared.
+     *
+     * @return zero based column where the block starts
+     */
+    private int findBestStart(int row, int numSeats) {
+
+        int idealStart = getIdealStart(row, numSeats);
+        int left = freeRuns.lastStartAtOrBefore(row, idealStart, numSeats);
+        int right = freeRuns.firstStartAtOrAfter(row, idealStart, numSeats);
+
+        if (left < 0) {
+            return right;
+        }
+        if (right < 0) {
+            return left;
+        }
+        return getWindowRating(row, right, numSeats) < getWindowRating(row, left, numSeats) ? right : left;
+    }
+
+    /**
+     * @return the start column of the window centered on the seats of the row
+     */
+    private int getIdealStart(int row, int numSeats) {
+        return Math.max(0, Math.min(seatsPerRow - numSeats, (rowCenters[row] + 1 - numSeats) / 2));
+    }
+
+    /**
+     * @return the sum of the ratings of the window, the lower the better
+     */
+    private double getWindowRating(int row, int start, int numSeats) {
+        int base = row * (seatsPerRow + 1);
+        return ratingPrefix[base + start + numSeats] - ratingPrefix[base + start];
+    }
+
+    /**
+     * Takes the seat out of the free run index and the available count, if it's still in there.
+     */
+    private void takeSeat(int seatId) {
+        if (freeRuns.isFree(rowOf(seatId), columnOf(seatId))) {
+            freeRuns.occupy(rowOf(seatId), columnOf(seatId));
+            availableSeats.decrementAndGet();
+            sectionAvailableSeats.decrementAndGet(sectionOfRow[rowOf(seatId)]);
+        }
+    }
+
+    /**
+     * Puts the seat back into the free run index and the available count, if it's not in there already.
+     */
+    private void releaseSeat(int seatId) {
+        if (!freeRuns.isFree(rowOf(seatId), columnOf(seatId))) {
+            freeRuns.free(rowOf(seatId), columnOf(seatId));
+            availableSeats.incrementAndGet();
+            sectionAvailableSeats.incrementAndGet(sectionOfRow[rowOf(seatId)]);
+        }
+    }
+
+    private void holdSeat(int seatId, long expires) {
+        seats.setHold(seatId, true);
+        seats.setExpires(seatId, expires);
+        takeSeat(seatId);
+    }
+
+    private AvailabilitySnapshot.Row snapshotRow(int row) {
+        return new AvailabilitySnapshot.Row(rowStates(row));
+    }
+
+    private byte[] rowStates(int row) {
+        byte[] states = new byte[seatsPerRow];
+        int firstSeatId = row * seatsPerRow + 1;
+        for (int col = 0; col < seatsPerRow; col++) {
+            if (!isSeat(firstSeatId + col)) {
+                states[col] = AvailabilitySnapshot.NO_SEAT;
+            } else if (!freeRuns.isFree(row, col)) {
+                states[col] = seats.isReserved(firstSeatId + col) ? AvailabilitySnapshot.RESERVED
+                        : AvailabilitySnapshot.HELD;
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Publishes the given rows as they are now, touching nothing that belongs to other rows but striped counters. Must
+     * be called with the rows still locked, so every row is published in the order it was changed. Rows are counted
+     * before they are published, so a reader that finds the count matching its cached snapshot knows every finished
+     * change is in there.
+     */
+    private void publish(int[] lockedRows) {
+        boolean multiRow = lockedRows.length > 1;
+        if (multiRow) {
+            multiRowChangesStarted.increment();
+        }
+        rowChanges.add(lockedRows.length);
+        for (int row : lockedRows) {
+            publishedRows.set(row, publishedRows.get(row).next(rowStates(row)));
+        }
+        if (multiRow) {
+            multiRowChangesDone.increment();
+        }
+    }
+
+    /**
+     * @return false for places of a layout that are no seat, which are rated NaN
+     */
+    private boolean isSeat(int seatId) {
+        return !Float.isNaN(seats.getRating(seatId));
+    }
+
+    private int rowOf(int seatId) {
+        return (seatId - 1) / seatsPerRow;
+    }
+
+    private int columnOf(int seatId) {
+        return (seatId - 1) % seatsPerRow;
+    }
+
+    /**
+     * Locks the rows of the given seats, always front to back so threads locking several rows can't deadlock.
+     *
+     * @return the locked rows, to be handed to {@link #unlockRows}
+     */
+    private int[] lockRows(int[] ids) {
+        int[] lockedRows = Arrays.stream(ids).map(this::rowOf).sorted().distinct().toArray();
+        for (int row : lockedRows) {
+            rowLocks[row].lock();
+        }
+        return lockedRows;
+    }
+
+    private int[] lockAllRows() {
+        int[] allRows = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            allRows[i] = i;
+            rowLocks[i].lock();
+        }
+        return allRows;
+    }
+
+    private void unlockRows(int[] lockedRows) {
+        for (int i = lockedRows.length - 1; i >= 0; i--) {
+            rowLocks[lockedRows[i]].unlock();
+        }
     }
 
     /**
-     * Changes the state of the given seats to hold for a given time.
+     * Changes the state of the given seats to hold for a given time. Either all seats get held or, if one of them is
+     * not available anymore, none of them.
      *
      * @param ids
      * @param holdTimeout
      */
     public void holdSeats(int[] ids, long holdTimeout) {
+        holdSeatsUntil(ids, System.currentTimeMillis() + holdTimeout * 1000);
+    }
 
-        for (int i = 0; i < ids.length; i++) {
-            Seat s = seats.get(ids[i]);
-            s.setHold(true);
-            Calendar expires = Calendar.getInstance();
-            expires.add(Calendar.SECOND, (int) holdTimeout);
-            s.setExpires(expires);
+    /**
+     * Changes the state of the given seats to hold until the given time, all or none of them, same as
+     * {@link #holdSeats(int[], long)}. Used where the expiration is decided by the caller, e.g., when replaying holds.
+     *
+     * @param ids
+     * @param expires epoch millis at which the hold expires
+     */
+    public void holdSeatsUntil(int[] ids, long expires) {
+
+        int[] lockedRows = lockRows(ids);
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                checkState(freeRuns.isFree(rowOf(ids[i]), columnOf(ids[i])), "Cannot hold an unavailable seat");
+            }
+            for (int i = 0; i < ids.length; i++) {
+                holdSeat(ids[i], expires);
+            }
+            publish(lockedRows);
+        } finally {
+            unlockRows(lockedRows);
+        }
+    }
+
+    /**
+     * Changes the state of the given held seats back to available, e.g., when their hold expires. Seats that got
+     * reserved in the meantime are left alone.
+     *
+     * @param ids
+     */
+    public void releaseSeats(int[] ids) {
+        int[] lockedRows = lockRows(ids);
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                if (!seats.isReserved(ids[i])) {
+                    seats.setHold(ids[i], false);
+                    seats.setExpires(ids[i], SeatStore.NO_EXPIRATION);
+                    releaseSeat(ids[i]);
+                }
+            }
+            publish(lockedRows);
+        } finally {
+            unlockRows(lockedRows);
         }
     }
 
@@ -139,11 +908,17 @@ public class Venue {
      *
      * @param ids
      */
-    public  void reserveSeats(int[] ids) {
-        for (int i = 0; i < ids.length; i++) {
-            Seat s = seats.get(ids[i]);
-            s.setExpires(null);
-            s.setReserved(true);
+    public void reserveSeats(int[] ids) {
+        int[] lockedRows = lockRows(ids);
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                seats.setExpires(ids[i], SeatStore.NO_EXPIRATION);
+                seats.setReserved(ids[i], true);
+                takeSeat(ids[i]);
+            }
+            publish(lockedRows);
+        } finally {
+            unlockRows(lockedRows);
         }
     }
 
@@ -165,20 +940,24 @@ public class Venue {
     //For debugging purpose during development...may leave it in as-in
     public String printSeats() {
 
+        AvailabilitySnapshot snapshot = getAvailabilitySnapshot();
         StringBuilder sb = new StringBuilder();
         sb.append("\nSeat Layout | Format: A|H|R (Seat|Rating)");
         sb.append("\n-----------------------------------------------------\n");
         int counter = 1;
         for (int i = 1; i <= rows; i++) {
             for (int j = 1; j <= seatsPerRow; j++) {
-                Seat seat = seats.get(counter++);
-
-                if (seat.isAvailable()) {
-                    sb.append(String.format("A(%d|%.01f)  ", seat.getSeatId(), seat.getRating()));
-                } else if (seat.isReserved()) {
-                    sb.append(String.format("R(%d|%.01f)  ", seat.getSeatId(), seat.getRating()));
+                int seatId = counter++;
+
+                byte state = snapshot.getState(seatId);
+                if (state == AvailabilitySnapshot.NO_SEAT) {
+                    sb.append("            ");
+                } else if (state == AvailabilitySnapshot.FREE) {
+                    sb.append(String.format("A(%d|%.01f)  ", seatId, seats.getRating(seatId)));
+                } else if (state == AvailabilitySnapshot.RESERVED) {
+                    sb.append(String.format("R(%d|%.01f)  ", seatId, seats.getRating(seatId)));
                 } else {
-                    sb.append(String.format("H(%d|%.01f)  ", seat.getSeatId(), seat.getRating()));
+                    sb.append(String.format("H(%d|%.01f)  ", seatId, seats.getRating(seatId)));
                 }
             }
             sb.append("\n");
@@ -0,0 +1,270 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The layout of a venue made of sections, each a number of rows of any length, with gaps for aisles, stairs and the
+ * like. Sections are listed best first and their rows front to back, so the rows of all sections one after the other
+ * are in order of preference, same as the rows of a plain rectangular venue.
+ *
+ * Layouts are read from a compact line based file, e.g.
+ * <pre>
+ * # comment
+ * section Floor
+ * 20x 30
+ * section East
+ * -2 10 -2 10
+ * 3x 24 -2 24
+ * </pre>
+ * Every line after a section line is a row: positive numbers are that many seats, negative ones a gap of that many
+ * places, and a leading "20x" repeats the row 20 times. Rows are kept as these runs, never seat by seat, so layouts with
+ * hundreds of thousands of seats load in a single pass without an object per seat.
+ *
+ * Rows are zero based and numbered across sections.
+ */
+public final class VenueLayout {
+
+    /**
+     * A section of the venue: a name and the range of venue rows it covers.
+     */
+    public static final class Section {
+
+        private final String name;
+        private final int firstRow;
+        private final int rows;
+
+        public Section(String name, int firstRow, int rows) {
+            checkArgument(name != null && !name.isEmpty(), "Please provide a section name");
+            checkArgument(firstRow >= 0 && rows > 0, "Please provide a valid row range for section %s", name);
+            this.name = name;
+            this.firstRow = firstRow;
+            this.rows = rows;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the first venue row of the section
+         */
+        public int getFirstRow() {
+            return firstRow;
+        }
+
+        /**
+         * @return the number of rows of the section
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (rows " + firstRow + "-" + (firstRow + rows - 1) + ")";
+        }
+    }
+
+    private final List<Section> sections;
+    private final int rows;
+    private final int width;
+    private final int seatCount;
+
+    /**
+     * Offset of the first run of every row into runs, rows that repeat share their runs
+     */
+    private final int[] rowRunOffsets;
+    private final int[] rowRunCounts;
+
+    /**
+     * Runs of every row as read, seats positive and gaps negative
+     */
+    private final int[] runs;
+
+    private VenueLayout(List<Section> sections, int rows, int width, int seatCount, int[] rowRunOffsets,
+                        int[] rowRunCounts, int[] runs) {
+        this.sections = Collections.unmodifiableList(sections);
+        this.rows = rows;
+        this.width = width;
+        this.seatCount = seatCount;
+        this.rowRunOffsets = rowRunOffsets;
+        this.rowRunCounts = rowRunCounts;
+        this.runs = runs;
+    }
+
+    /**
+     * @return the layout read from the given file, see the class comment for the format
+     */
+    public static VenueLayout read(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * @return the layout read from the given reader, see the class comment for the format
+     * @throws IllegalArgumentException if the layout is malformed, naming the line
+     */
+    public static VenueLayout read(Reader source) throws IOException {
+
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        List<Section> sections = new ArrayList<>();
+        String sectionName = null;
+        int sectionFirstRow = 0;
+        int rows = 0;
+        int width = 0;
+        int seatCount = 0;
+        int[] rowRunOffsets = new int[64];
+        int[] rowRunCounts = new int[64];
+        int[] runs = new int[256];
+        int runCount = 0;
+
+        int lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            if ("section".equals(tokens[0])) {
+                checkArgument(tokens.length == 2, "Line %s: please name the section in one word", lineNumber);
+                if (sectionName != null) {
+                    checkArgument(rows > sectionFirstRow, "Line %s: section %s has no rows", lineNumber, sectionName);
+                    sections.add(new Section(sectionName, sectionFirstRow, rows - sectionFirstRow));
+                }
+                sectionName = tokens[1];
+                sectionFirstRow = rows;
+                continue;
+            }
+            checkArgument(sectionName != null, "Line %s: rows have to follow a section line", lineNumber);
+
+            int repeat = 1;
+            int first = 0;
+            if (tokens[0].endsWith("x")) {
+                repeat = parse(tokens[0].substring(0, tokens[0].length() - 1), lineNumber);
+                checkArgument(repeat > 0, "Line %s: please repeat a row at least once", lineNumber);
+                first = 1;
+            }
+            checkArgument(first < tokens.length, "Line %s: the row has no seats", lineNumber);
+
+            int offset = runCount;
+            int extent = 0;
+            int rowSeats = 0;
+            for (int i = first; i < tokens.length; i++) {
+                int run = parse(tokens[i], lineNumber);
+                checkArgument(run != 0, "Line %s: runs can't be empty", lineNumber);
+                if (runCount == runs.length) {
+                    runs = Arrays.copyOf(runs, runs.length << 1);
+                }
+                runs[runCount++] = run;
+                extent += Math.abs(run);
+                rowSeats += Math.max(run, 0);
+            }
+            checkArgument(rowSeats > 0, "Line %s: the row has no seats", lineNumber);
+            checkArgument((long) rows + repeat <= Integer.MAX_VALUE, "Line %s: too many rows", lineNumber);
+
+            if (rows + repeat > rowRunOffsets.length) {
+                int capacity = Math.max(rows + repeat, rowRunOffsets.length << 1);
+                rowRunOffsets = Arrays.copyOf(rowRunOffsets, capacity);
+                rowRunCounts = Arrays.copyOf(rowRunCounts, capacity);
+            }
+            Arrays.fill(rowRunOffsets, rows, rows + repeat, offset);
+            Arrays.fill(rowRunCounts, rows, rows + repeat, runCount - offset);
+            rows += repeat;
+            width = Math.max(width, extent);
+            seatCount += rowSeats * repeat;
+        }
+
+        checkArgument(sectionName != null, "The layout has no sections");
+        checkArgument(rows > sectionFirstRow, "Section %s has no rows", sectionName);
+        sections.add(new Section(sectionName, sectionFirstRow, rows - sectionFirstRow));
+        checkArgument((long) rows * width <= Integer.MAX_VALUE, "The layout is too large");
+
+        return new VenueLayout(sections, rows, width, seatCount, rowRunOffsets, rowRunCounts, runs);
+    }
+
+    private static int parse(String token, int lineNumber) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("Line %d: %s is not a number", lineNumber, token));
+        }
+    }
+
+    /**
+     * @return the sections, best first
+     */
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    /**
+     * @return the number of rows over all sections
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the length of the longest row, gaps included
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the number of seats over all sections
+     */
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    /**
+     * Rates every place of a venue of getRows() rows of getWidth() places, same as the seats of a rectangular venue:
+     * the distance from the center of the row's seats plus the row number. Places that are no seat are rated NaN.
+     *
+     * @return the ratings, ratings[0] being the rating of the first place of the front row
+     */
+    float[] seatRatings() {
+        float[] ratings = new float[rows * width];
+        Arrays.fill(ratings, Float.NaN);
+        for (int row = 0; row < rows; row++) {
+            int offset = rowRunOffsets[row];
+            int end = offset + rowRunCounts[row];
+            int firstSeat = -1;
+            int lastSeat = 0;
+            int col = 0;
+            for (int i = offset; i < end; i++) {
+                if (runs[i] > 0) {
+                    firstSeat = firstSeat < 0 ? col : firstSeat;
+                    lastSeat = col + runs[i] - 1;
+                }
+                col += Math.abs(runs[i]);
+            }
+
+            float center = (float) (firstSeat + lastSeat) / 2;
+            col = 0;
+            for (int i = offset; i < end; i++) {
+                for (int seat = col; seat < col + runs[i]; seat++) {
+                    ratings[row * width + seat] = Math.abs(center - seat) + (row + 1);
+                }
+                col += Math.abs(runs[i]);
+            }
+        }
+        return ratings;
+    }
+
+}
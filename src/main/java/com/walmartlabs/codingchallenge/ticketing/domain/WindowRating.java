@@ -0,0 +1,17 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+/**
+ * Rating of a window of seats in a row, the lower the better. Rows and columns are zero based.
+ */
+interface WindowRating {
+
+    double of(int row, int start, int numSeats);
+
+    /**
+     * Ratings grow away from the center of the seats of a row, so windows are best around the centered one.
+     *
+     * @return the start column of the window of numSeats seats centered in the row
+     */
+    int idealStart(int row, int numSeats);
+
+}
@@ -0,0 +1,36 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The non blocking counterpart of {@link TicketService}. Calls return right away and the future completes once the
+ * request has been served, or completes exceptionally with the error the blocking call would have thrown.
+ */
+public interface AsyncTicketService {
+    /**
+     * The number of seats in the venue that are neither held nor reserved.
+     *
+     * @return the number of tickets available in the venue
+     */
+    CompletableFuture<Integer> numSeatsAvailable();
+
+    /**
+     * Find and hold the best available seats for a customer.
+     *
+     * @param numSeats the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    CompletableFuture<SeatHold> findAndHoldSeats(int numSeats, String customerEmail);
+
+    /**
+     * Commit seats held for a specific customer.
+     *
+     * @param seatHoldId the seat hold identifier
+     * @param customerEmail the email address of the customer to which the seat hold is assigned
+     * @return a reservation confirmation code
+     */
+    CompletableFuture<String> reserveSeats(int seatHoldId, String customerEmail);
+}
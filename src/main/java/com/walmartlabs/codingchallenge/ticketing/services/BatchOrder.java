@@ -0,0 +1,42 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.HoldRequest;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The order in which a batch of hold requests gets its seats.
+ */
+public enum BatchOrder {
+
+    /**
+     * First come, first served.
+     */
+    ARRIVAL {
+        @Override
+        int[] allocationOrder(List<HoldRequest> requests) {
+            return IntStream.range(0, requests.size()).toArray();
+        }
+    },
+
+    /**
+     * Largest groups first, while the venue still has long runs of free seats. Groups of the same size keep their
+     * arrival order.
+     */
+    LARGEST_FIRST {
+        @Override
+        int[] allocationOrder(List<HoldRequest> requests) {
+            return IntStream.range(0, requests.size()).boxed()
+                    .sorted(Comparator.comparingInt((Integer index) -> requests.get(index).getNumSeats()).reversed())
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    };
+
+    /**
+     * @return the indexes of the requests in the order they should be allocated
+     */
+    abstract int[] allocationOrder(List<HoldRequest> requests);
+}
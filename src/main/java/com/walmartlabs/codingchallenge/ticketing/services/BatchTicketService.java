@@ -0,0 +1,22 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.HoldRequest;
+import com.walmartlabs.codingchallenge.ticketing.domain.HoldResult;
+
+import java.util.List;
+
+/**
+ * A TicketService that can find and hold seats for many requests at once, e.g., to drain an admission queue at
+ * on-sale time without paying for validation, locking and expiration per request.
+ */
+public interface BatchTicketService extends TicketService {
+
+    /**
+     * Find and hold the best available seats for a batch of customers.
+     *
+     * @param requests the hold requests
+     * @param order the order in which seats are allocated to the requests
+     * @return one result per request and in the same order, holding either the SeatHold or the reason it failed
+     */
+    List<HoldResult> findAndHoldSeats(List<HoldRequest> requests, BatchOrder order);
+}
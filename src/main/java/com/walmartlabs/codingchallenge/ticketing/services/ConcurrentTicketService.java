@@ -0,0 +1,450 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.HoldJournal;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.VenueSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A concurrent implementation of TicketService without a service wide lock.
+ *
+ * Seats are found and held under the lock of the row they are in (see {@link Venue#holdSequentSeats}), so holds in
+ * different rows proceed in parallel. Seat holds live in a concurrent map and whoever removes a hold from it, a
+ * reservation or an expiration, owns its seats. That keeps the no double booking guarantee without a global lock.
+ */
+public class ConcurrentTicketService implements TicketService {
+
+    /**
+     * Default seat hold expiration time is 60 seconds.
+     */
+    private static final long DEFAULT_SEAT_HOLD_TIMEOUT = 60;
+    /**
+     * Expirations are bucketed in 100 ms ticks, 1024 buckets cover a little over one and a half minutes.
+     */
+    private static final long EXPIRATION_TICK_MILLIS = 100;
+    private static final int EXPIRATION_WHEEL_SIZE = 1024;
+    /**
+     * An atomic integer for generation of ID's.
+     */
+    private final AtomicInteger atomicInteger = new AtomicInteger(0);
+
+    /**
+     * The last seat hold id of the snapshot the service was started from, 0 without one
+     */
+    private int snapshotSeatHoldId;
+
+    /**
+     * A Map that holds all the SeatHold objects currently active.
+     */
+    private final ConcurrentMap<Integer, SeatHold> seatHoldMap = new ConcurrentHashMap<>();
+
+    /**
+     * The active SeatHold objects of every customer. Updates only lock the customer's entry, so holds of different
+     * customers never wait for each other.
+     */
+    private final ConcurrentMap<String, Set<SeatHold>> customerHolds = new ConcurrentHashMap<>();
+
+    /**
+     * Expires active SeatHold objects in bulk once they are due, guarded by its own monitor.
+     */
+    private final HoldExpirationWheel expirationWheel =
+            new HoldExpirationWheel(EXPIRATION_TICK_MILLIS, EXPIRATION_WHEEL_SIZE, System.currentTimeMillis());
+
+    /**
+     * Listeners told about every hold, reservation and expiration. They are called from whichever thread applies the
+     * change, so they have to be thread safe.
+     */
+    private final List<SeatHoldListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The journal every change is written to before it is applied, if any
+     */
+    private volatile HoldJournal journal;
+
+    /**
+     * The seathold expiration timeout.
+     */
+    private final long seatHoldTimeout;
+    /**
+     * The venue object that holds seats, seat rating and layout
+     */
+    private final Venue venue;
+
+
+    /**
+     * Default Constructor for ConcurrentTicketService
+     *
+     * @param venue
+     */
+    ConcurrentTicketService(final Venue venue) {
+        this(venue, DEFAULT_SEAT_HOLD_TIMEOUT);
+    }
+
+    /**
+     * Overloaded constructor providing seatHoldTimeout besides Venue
+     *
+     * @param venue
+     * @param seatHoldTimeout
+     */
+    public ConcurrentTicketService(Venue venue, long seatHoldTimeout) {
+
+        this.venue = venue;
+        this.seatHoldTimeout = seatHoldTimeout;
+    }
+
+    /**
+     * Registers a listener that gets told about every hold, reservation and expiration from now on.
+     *
+     * @param listener
+     */
+    public void addSeatHoldListener(SeatHoldListener listener) {
+        checkArgument(listener != null, "Please provide a listener");
+        listeners.add(listener);
+    }
+
+    /**
+     * Writes every hold, reservation and expiration to the journal before applying it. Holds and reservations are only
+     * handed out once the journal has them on disk.
+     *
+     * @param journal the journal, recovered already if it has events
+     */
+    public void setJournal(HoldJournal journal) {
+        checkArgument(journal != null, "Please provide a journal");
+        this.journal = journal;
+    }
+
+    /**
+     * Starts a service from a snapshot, with its seat holds active again and expiring at their original time.
+     *
+     * @param snapshot        the snapshot to start from
+     * @param seatHoldTimeout the seathold expiration timeout for new holds
+     * @return the restored service
+     */
+    public static ConcurrentTicketService fromSnapshot(VenueSnapshot snapshot, long seatHoldTimeout) {
+
+        ConcurrentTicketService service = new ConcurrentTicketService(snapshot.getVenue(), seatHoldTimeout);
+        for (SeatHold seatHold : snapshot.getSeatHolds()) {
+            long expiresAt = snapshot.getVenue().getHoldExpiration(seatHold.getSeats()[0]);
+            service.seatHoldMap.put(seatHold.getId(), seatHold);
+            service.addCustomerHold(seatHold);
+            synchronized (service.expirationWheel) {
+                service.expirationWheel.schedule(seatHold.getId(), expiresAt);
+            }
+        }
+        service.atomicInteger.set(snapshot.getLastSeatHoldId());
+        service.snapshotSeatHoldId = snapshot.getLastSeatHoldId();
+        return service;
+    }
+
+    /**
+     * Rebuilds the seat holds and reservations recorded in the journal, on top of the snapshot the service was started
+     * from if any. Holds that expired while the service was down are released on the next service call. Listeners are
+     * not told about the replayed events, so this has to happen before the service takes any calls.
+     *
+     * Holds the snapshot has already are skipped, in case the service went down after the snapshot was written but
+     * before the journal was emptied. Their reservations and expirations find no hold and change nothing either.
+     *
+     * @param journal the journal to replay
+     * @return the number of replayed events
+     */
+    public long recover(HoldJournal journal) throws IOException {
+
+        return journal.replay(new HoldJournal.ReplayHandler() {
+            @Override
+            public void onHold(SeatHold seatHold, long expiresAt) {
+                if (seatHold.getId() <= snapshotSeatHoldId) {
+                    return;
+                }
+                venue.holdSeatsUntil(seatHold.getSeats(), expiresAt);
+                seatHoldMap.put(seatHold.getId(), seatHold);
+                addCustomerHold(seatHold);
+                synchronized (expirationWheel) {
+                    expirationWheel.schedule(seatHold.getId(), expiresAt);
+                }
+                atomicInteger.accumulateAndGet(seatHold.getId(), Math::max);
+            }
+
+            @Override
+            public void onReserve(int seatHoldId) {
+                SeatHold seatHold = seatHoldMap.remove(seatHoldId);
+                if (seatHold != null) {
+                    removeCustomerHold(seatHold);
+                    venue.reserveSeats(seatHold.getSeats());
+                }
+            }
+
+            @Override
+            public void onExpire(int seatHoldId) {
+                SeatHold seatHold = seatHoldMap.remove(seatHoldId);
+                if (seatHold != null) {
+                    removeCustomerHold(seatHold);
+                    venue.releaseSeats(seatHold.getSeats());
+                }
+            }
+        });
+    }
+
+    //Start - Interface Implementation Block
+
+    /**
+     * The number of seats in the venue that are neither held nor reserved.
+     *
+     * @return the number of tickets available in the venue
+     */
+    @Override
+    public int numSeatsAvailable() {
+        expireHolds();
+        return venue.getAvailableSeatCount();
+    }
+
+    /**
+     * Expires all the seat holds that are due, releasing their seats and forgetting the SeatHold objects.
+     */
+    public void expireHolds() {
+
+        long now = System.currentTimeMillis();
+        if (!expirationWheel.isDue(now)) {
+            return;
+        }
+
+        List<Integer> expiredHoldIds = new ArrayList<>();
+        synchronized (expirationWheel) {
+            expirationWheel.advance(now, expiredHoldIds::add);
+        }
+        // Seats are released outside the wheel lock, a hold that got reserved meanwhile is gone from the map already
+        for (int seatHoldId : expiredHoldIds) {
+            SeatHold seatHold = seatHoldMap.remove(seatHoldId);
+            if (seatHold != null) {
+                removeCustomerHold(seatHold);
+                // The journal hears about the expiration before the seats can go to someone else, listeners once the
+                // seats are free, like they hear about holds and reservations once they are applied
+                HoldJournal journal = this.journal;
+                if (journal != null) {
+                    journal.appendExpire(seatHold);
+                }
+                venue.releaseSeats(seatHold.getSeats());
+                notifyListeners(listener -> listener.onExpire(seatHold));
+            }
+        }
+    }
+
+
+    /**
+     * Find and hold the best available seats for a customer.
+     *
+     * @param numSeats      the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    @Override
+    public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+
+        checkArgument(!customerEmail.isEmpty(), "Please provide a valid email address");
+        checkArgument(numSeats > 0, "Please provide a valid number of seats you want to hold.");
+        checkArgument(numSeats < venue.getTotalSeats(), "You are requesting to hold more than the whole venue. ");
+
+        expireHolds();
+        if (this.venue.getAvailableSeatCount() < numSeats) {
+
+            throw new TicketServiceException(String.format("We don't have %d many seats available right now.", numSeats));
+        }
+
+        // Step 1: Find and hold all requested seats in sequence.
+        int[] seats = venue.holdSequentSeats(numSeats, seatHoldTimeout);
+        if (seats.length > 0) {
+            return newSeatHold(numSeats, seats, customerEmail);
+        }
+
+        // Since we didn't find all seats together, hold the biggest blocks we can find until the group is seated
+        List<int[]> blocks = new ArrayList<>();
+        int seatsFound = 0;
+        int seatBlock = numSeats - 1;
+        while (seatBlock > 0 && seatsFound < numSeats) {
+            int[] seatIds = venue.holdSequentSeats(seatBlock, seatHoldTimeout);
+            if (seatIds.length > 0) {
+                blocks.add(seatIds);
+                seatsFound += seatIds.length;
+                seatBlock = Math.min(seatBlock, numSeats - seatsFound);
+            } else {
+                seatBlock--;
+            }
+        }
+
+        if (seatsFound == numSeats) {
+            int[] tempSeatIds = blocks.stream().flatMapToInt(Arrays::stream).toArray();
+            return newSeatHold(numSeats, tempSeatIds, customerEmail);
+        }
+
+        // Other holds got the seats first, give back what we have
+        for (int[] block : blocks) {
+            venue.releaseSeats(block);
+        }
+        return new SeatHold();
+    }
+
+    /**
+     * Registers a SeatHold for seats that are held already, once the journal has it on disk. Until then nobody can see
+     * or reserve the hold, and if the journal can't take it the seats are given back.
+     */
+    private SeatHold newSeatHold(int numSeats, int[] seats, String customerEmail) {
+
+        SeatHold seatHold = new SeatHold(atomicInteger.incrementAndGet(), numSeats, seats, customerEmail);
+        long expiresAt = System.currentTimeMillis() + seatHoldTimeout * 1000;
+        HoldJournal journal = this.journal;
+        if (journal != null) {
+            try {
+                awaitJournal(journal.appendHold(seatHold, expiresAt));
+            } catch (RuntimeException ex) {
+                venue.releaseSeats(seats);
+                throw ex;
+            }
+        }
+
+        seatHoldMap.put(seatHold.getId(), seatHold);
+        addCustomerHold(seatHold);
+        notifyListeners(listener -> listener.onHold(seatHold, expiresAt));
+        synchronized (expirationWheel) {
+            expirationWheel.schedule(seatHold.getId(), expiresAt);
+        }
+        return seatHold;
+    }
+
+    /**
+     * Tells every listener about a change that is applied already. A listener that fails neither undoes the change nor
+     * keeps the other listeners from hearing about it, so callers are never told a change failed that happened.
+     */
+    private void notifyListeners(Consumer<SeatHoldListener> event) {
+        for (SeatHoldListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException ex) {
+                // The change stands whatever the listener made of it
+            }
+        }
+    }
+
+    /**
+     * Waits until the journal has the hold or reservation on disk. Calls that wait for the same commit share its
+     * fsync.
+     */
+    private static void awaitJournal(CompletableFuture<Void> written) {
+        if (written == null) {
+            return;
+        }
+        try {
+            written.join();
+        } catch (CompletionException ex) {
+            throw new TicketServiceException("We couldn't save your request, please try again.");
+        }
+    }
+
+
+    /**
+     * Commit seats held for a specific customer.
+     *
+     * @param seatHoldId    the seat hold identifier
+     * @param customerEmail the email address of the customer to which the seat hold is assigned
+     * @return a reservation confirmation code
+     */
+    @Override
+    public String reserveSeats(int seatHoldId, String customerEmail) {
+
+        checkArgument(!customerEmail.isEmpty(), "Please provide a valid email address");
+        checkArgument(seatHoldId > 0, "Please provide a valid SeatHold id.");
+
+        expireHolds();
+        SeatHold seatHold = seatHoldMap.get(seatHoldId);
+
+        if (seatHold != null && !seatHold.getCustomerEmail().equals(customerEmail)) {
+            throw new TicketServiceException(String.format("SeatHold with id: %d is not related to customer email %s",
+                    seatHoldId, customerEmail));
+        }
+
+        // Removing the hold claims its seats, a concurrent reservation or expiration may beat us to it
+        if (seatHold == null || !seatHoldMap.remove(seatHoldId, seatHold)) {
+            throw new TicketServiceException(String.format("SeatHold with id: %d is either invalid or expired or reserved already.",
+                    seatHoldId));
+        }
+
+        // The reservation is only applied once the journal has it, a journal that can't take it gives the hold back
+        HoldJournal journal = this.journal;
+        if (journal != null) {
+            try {
+                awaitJournal(journal.appendReserve(seatHold));
+            } catch (RuntimeException ex) {
+                restoreHold(seatHold);
+                throw ex;
+            }
+        }
+
+        removeCustomerHold(seatHold);
+        venue.reserveSeats(seatHold.getSeats());
+        notifyListeners(listener -> listener.onReserve(seatHold));
+        return "R" + seatHold.getId().toString();
+    }
+
+    /**
+     * Puts a hold that was claimed for a reservation back as it was. The wheel may have passed it by while it was
+     * claimed, so it is scheduled again at its original expiration.
+     */
+    private void restoreHold(SeatHold seatHold) {
+        seatHoldMap.put(seatHold.getId(), seatHold);
+        synchronized (expirationWheel) {
+            expirationWheel.schedule(seatHold.getId(), venue.getHoldExpiration(seatHold.getSeats()[0]));
+        }
+    }
+
+    /**
+     * Finds the active holds of a customer, e.g., for support or fraud checks, without looking at anyone else's.
+     * Holds made or ended while this runs may or may not be in the result.
+     *
+     * @param customerEmail unique identifier for the customer
+     * @return the customer's holds that are neither expired nor reserved, most recent first
+     */
+    public List<SeatHold> findSeatHolds(String customerEmail) {
+
+        checkArgument(customerEmail != null, "Please provide a valid email address");
+        expireHolds();
+        Set<SeatHold> seatHolds = customerHolds.get(customerEmail);
+        if (seatHolds == null) {
+            return new ArrayList<>();
+        }
+        List<SeatHold> result = new ArrayList<>(seatHolds);
+        result.sort(Comparator.comparing(SeatHold::getId).reversed());
+        return result;
+    }
+
+    private void addCustomerHold(SeatHold seatHold) {
+        customerHolds.compute(seatHold.getCustomerEmail(), (email, seatHolds) -> {
+            Set<SeatHold> holds = seatHolds == null ? ConcurrentHashMap.newKeySet() : seatHolds;
+            holds.add(seatHold);
+            return holds;
+        });
+    }
+
+    private void removeCustomerHold(SeatHold seatHold) {
+        customerHolds.computeIfPresent(seatHold.getCustomerEmail(), (email, seatHolds) -> {
+            seatHolds.remove(seatHold);
+            return seatHolds.isEmpty() ? null : seatHolds;
+        });
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An AsyncTicketService that serves every request on a single event loop thread, the only thread that ever calls the
+ * wrapped TicketService.
+ *
+ * Callers never wait for a lock: a request is a small task on a lock free queue, so a large number of requests in
+ * flight costs a queue entry and a future each rather than a blocked thread each. The wrapped service sees one caller
+ * at a time, so its own locking is hardly ever contended.
+ *
+ * The event loop never waits for a journal either. Holds and reservations of a {@link JournaledTicketService} are
+ * found and claimed on the loop, and their futures complete on the journal's commit thread once they are on disk,
+ * while the loop goes on with the next request.
+ *
+ * Other futures are completed on the event loop. Dependent stages added with the non async CompletableFuture methods
+ * run where the future completes and hold up everything behind them, so anything slow should go through the *Async
+ * variants.
+ */
+public class EventLoopTicketService implements AsyncTicketService, Closeable {
+
+    /**
+     * Default limit of requests waiting to be served.
+     */
+    private static final int DEFAULT_MAX_PENDING = 1 << 20;
+
+    /**
+     * The service every request is served by, only ever called from the event loop.
+     */
+    private final TicketService ticketService;
+
+    /**
+     * The same service if it journals its changes, null otherwise
+     */
+    private final JournaledTicketService journaledTicketService;
+
+    private final int maxPending;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of requests queued and not served yet.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Thread eventLoop;
+
+    /**
+     * Set by the event loop before it parks, so submitters only unpark it when it may be asleep.
+     */
+    private volatile boolean parked;
+
+    private volatile boolean closed;
+
+
+    /**
+     * Default Constructor for EventLoopTicketService
+     *
+     * @param ticketService
+     */
+    public EventLoopTicketService(TicketService ticketService) {
+        this(ticketService, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Overloaded constructor providing the limit of queued requests, requests beyond it are turned down right away.
+     *
+     * @param ticketService
+     * @param maxPending
+     */
+    public EventLoopTicketService(TicketService ticketService, int maxPending) {
+
+        checkArgument(ticketService != null, "Please provide a ticket service");
+        checkArgument(maxPending > 0, "Please provide a positive limit of pending requests");
+
+        this.ticketService = ticketService;
+        this.journaledTicketService = ticketService instanceof JournaledTicketService
+                ? (JournaledTicketService) ticketService : null;
+        this.maxPending = maxPending;
+        this.eventLoop = new Thread(this::run, "ticket-service-event-loop");
+        this.eventLoop.setDaemon(true);
+        this.eventLoop.start();
+    }
+
+    //Start - Interface Implementation Block
+
+    @Override
+    public CompletableFuture<Integer> numSeatsAvailable() {
+        return submit(() -> CompletableFuture.completedFuture(ticketService.numSeatsAvailable()));
+    }
+
+    @Override
+    public CompletableFuture<SeatHold> findAndHoldSeats(int numSeats, String customerEmail) {
+        if (journaledTicketService != null) {
+            return submit(() -> journaledTicketService.findAndHoldSeatsAsync(numSeats, customerEmail));
+        }
+        return submit(() -> CompletableFuture.completedFuture(ticketService.findAndHoldSeats(numSeats, customerEmail)));
+    }
+
+    @Override
+    public CompletableFuture<String> reserveSeats(int seatHoldId, String customerEmail) {
+        if (journaledTicketService != null) {
+            return submit(() -> journaledTicketService.reserveSeatsAsync(seatHoldId, customerEmail));
+        }
+        return submit(() -> CompletableFuture.completedFuture(ticketService.reserveSeats(seatHoldId, customerEmail)));
+    }
+
+    /**
+     * @return the number of requests waiting to be served
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Queues a request for the event loop.
+     *
+     * @param request serves the request on the event loop and returns its result, which may complete later
+     */
+    private <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new TicketServiceException("The ticket service is shut down."));
+            return result;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            result.completeExceptionally(new TicketServiceException(
+                    String.format("There are more than %d requests in flight, please try again later.", maxPending)));
+            return result;
+        }
+
+        Runnable task = () -> {
+            try {
+                request.get().whenComplete((value, failure) -> {
+                    if (failure == null) {
+                        result.complete(value);
+                    } else if (failure instanceof CompletionException && failure.getCause() != null) {
+                        result.completeExceptionally(failure.getCause());
+                    } else {
+                        result.completeExceptionally(failure);
+                    }
+                });
+            } catch (Throwable ex) {
+                // Whatever a request throws goes to its caller, the event loop keeps serving the others
+                result.completeExceptionally(ex);
+            }
+        };
+        tasks.add(task);
+        if (closed && tasks.remove(task)) {
+            // Raced with close, the event loop may be gone already
+            pending.decrementAndGet();
+            result.completeExceptionally(new TicketServiceException("The ticket service is shut down."));
+        } else if (parked) {
+            LockSupport.unpark(eventLoop);
+        }
+        return result;
+    }
+
+    private void run() {
+        while (true) {
+            Runnable task = tasks.poll();
+            if (task != null) {
+                pending.decrementAndGet();
+                task.run();
+                continue;
+            }
+            if (closed) {
+                return;
+            }
+            parked = true;
+            // Checked again after announcing the park, a submitter that missed the flag has queued its task by now
+            if (tasks.isEmpty() && !closed) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+    }
+
+    /**
+     * Stops taking requests, serves the ones already queued and stops the event loop.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(eventLoop);
+        try {
+            eventLoop.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A hashed timer wheel for SeatHold expirations.
+ *
+ * Time is cut in ticks of tickMillis and every hold goes into the bucket of the tick it expires in. Advancing the
+ * wheel only looks at the buckets of the ticks that went by since the last advance, so due holds are expired in bulk
+ * and nothing has to check expiration times while searching for seats. Holds expiring more than one revolution ahead
+ * share a bucket with earlier ones and are simply left there until their time comes.
+ *
+ * The wheel is not thread safe, callers are expected to guard it. {@link #isDue(long)} may be called without a lock.
+ */
+class HoldExpirationWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<PendingHold>> buckets;
+
+    /**
+     * Last tick that was advanced to. Its bucket may still have holds that are due later in that tick.
+     */
+    private long lastTick;
+
+    /**
+     * Earliest time at which a hold could be due, lets callers skip advancing (and locking) in between.
+     */
+    private volatile long nextDeadline = Long.MAX_VALUE;
+
+    private int pendingHolds;
+
+    /**
+     * Constructor
+     *
+     * @param tickMillis duration of one tick
+     * @param wheelSize  number of buckets, rounded up to a power of two
+     * @param now        current epoch millis
+     */
+    HoldExpirationWheel(long tickMillis, int wheelSize, long now) {
+
+        checkArgument(tickMillis > 0, "Tick duration must be positive");
+        checkArgument(wheelSize > 0, "Wheel size must be positive");
+
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.lastTick = now / tickMillis;
+    }
+
+    /**
+     * Schedules the given hold to expire at the given time.
+     *
+     * @param holdId   the seat hold identifier
+     * @param deadline epoch millis at which the hold expires
+     */
+    void schedule(int holdId, long deadline) {
+
+        // Holds that are due already go into the current bucket so the next advance picks them up
+        long tick = Math.max(deadline / tickMillis, lastTick);
+        buckets.get((int) (tick & mask)).add(new PendingHold(holdId, deadline));
+        pendingHolds++;
+        if (deadline < nextDeadline) {
+            nextDeadline = deadline;
+        }
+    }
+
+    /**
+     * @return true if a scheduled hold may be due at the given time
+     */
+    boolean isDue(long now) {
+        return now >= nextDeadline;
+    }
+
+    /**
+     * @return the number of holds that are scheduled and haven't expired yet
+     */
+    int size() {
+        return pendingHolds;
+    }
+
+    /**
+     * Expires every hold that is due at the given time.
+     *
+     * @param now     current epoch millis
+     * @param expired receives the id of every expired hold
+     */
+    void advance(long now, IntConsumer expired) {
+
+        long currentTick = now / tickMillis;
+        long firstTick = Math.max(lastTick, currentTick - mask);
+
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            List<PendingHold> bucket = buckets.get((int) (tick & mask));
+            for (int i = bucket.size() - 1; i >= 0; i--) {
+                PendingHold pendingHold = bucket.get(i);
+                if (pendingHold.deadline <= now) {
+                    // Swap remove, order within a bucket doesn't matter
+                    bucket.set(i, bucket.get(bucket.size() - 1));
+                    bucket.remove(bucket.size() - 1);
+                    pendingHolds--;
+                    expired.accept(pendingHold.holdId);
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, currentTick);
+        nextDeadline = computeNextDeadline();
+    }
+
+    /**
+     * Nothing outside the current bucket can be due before the next tick starts, so only the current bucket needs a
+     * closer look.
+     */
+    private long computeNextDeadline() {
+
+        if (pendingHolds == 0) {
+            return Long.MAX_VALUE;
+        }
+        long nextTickStart = (lastTick + 1) * tickMillis;
+        long deadline = nextTickStart;
+        for (PendingHold pendingHold : buckets.get((int) (lastTick & mask))) {
+            deadline = Math.min(deadline, pendingHold.deadline);
+        }
+        return deadline;
+    }
+
+    /**
+     * A hold waiting to expire.
+     */
+    private static class PendingHold {
+
+        private final int holdId;
+        private final long deadline;
+
+        PendingHold(int holdId, long deadline) {
+            this.holdId = holdId;
+            this.deadline = deadline;
+        }
+    }
+
+}
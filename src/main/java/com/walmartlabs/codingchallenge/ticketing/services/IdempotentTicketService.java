@@ -0,0 +1,109 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A TicketService that lets clients retry holds safely. A hold sent with an idempotency key is made once, retries with
+ * the same key (from the same customer) get the SeatHold of the first call back from a cache instead of holding more
+ * seats. Concurrent retries wait for the first call rather than racing it.
+ *
+ * Keys are remembered for as long as a hold lives, and at most maxKeys of them, the least recently used going first.
+ * Holds that found no seats or failed are not remembered, so a retry tries again.
+ */
+public class IdempotentTicketService implements TicketService {
+
+    /**
+     * Enough for a busy on sale, about 100 bytes a key
+     */
+    public static final long DEFAULT_MAX_KEYS = 1_000_000;
+
+    private final TicketService ticketService;
+
+    /**
+     * Recent holds by customer email and idempotency key
+     */
+    private final Cache<String, SeatHold> recentHolds;
+
+    /**
+     * @param ticketService   the service to make holds with
+     * @param seatHoldTimeout the seathold expiration timeout of that service, in seconds
+     */
+    public IdempotentTicketService(TicketService ticketService, long seatHoldTimeout) {
+        this(ticketService, seatHoldTimeout, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param ticketService   the service to make holds with
+     * @param seatHoldTimeout the seathold expiration timeout of that service, in seconds
+     * @param maxKeys         the most idempotency keys to remember
+     */
+    public IdempotentTicketService(TicketService ticketService, long seatHoldTimeout, long maxKeys) {
+
+        checkArgument(ticketService != null, "Please provide a ticket service");
+        checkArgument(seatHoldTimeout > 0, "Please provide a positive seat hold timeout");
+        checkArgument(maxKeys > 0, "Please provide a positive number of keys to remember");
+        this.ticketService = ticketService;
+        this.recentHolds = CacheBuilder.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(seatHoldTimeout, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public int numSeatsAvailable() {
+        return ticketService.numSeatsAvailable();
+    }
+
+    @Override
+    public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+        return ticketService.findAndHoldSeats(numSeats, customerEmail);
+    }
+
+    /**
+     * Find and hold the best available seats for a customer, once per idempotency key.
+     *
+     * @param numSeats       the number of seats to find and hold
+     * @param customerEmail  unique identifier for the customer
+     * @param idempotencyKey identifies the hold across retries, e.g., a UUID the client made up, null for none
+     * @return the SeatHold made by the first call with this key, or a new one
+     */
+    public SeatHold findAndHoldSeats(int numSeats, String customerEmail, String idempotencyKey) {
+
+        if (idempotencyKey == null) {
+            return ticketService.findAndHoldSeats(numSeats, customerEmail);
+        }
+        checkArgument(customerEmail != null, "Please provide a valid email address");
+
+        String key = customerEmail + '\n' + idempotencyKey;
+        SeatHold seatHold;
+        try {
+            seatHold = recentHolds.get(key, () -> ticketService.findAndHoldSeats(numSeats, customerEmail));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            Throwables.throwIfUnchecked(ex.getCause());
+            throw new IllegalStateException(ex.getCause());
+        }
+
+        if (seatHold.getId() == null) {
+            recentHolds.invalidate(key);
+        } else if (seatHold.getNumSeats() != numSeats) {
+            throw new IllegalArgumentException(String.format(
+                    "Idempotency key %s was used to hold %d seats already.", idempotencyKey, seatHold.getNumSeats()));
+        }
+        return seatHold;
+    }
+
+    @Override
+    public String reserveSeats(int seatHoldId, String customerEmail) {
+        return ticketService.reserveSeats(seatHoldId, customerEmail);
+    }
+
+}
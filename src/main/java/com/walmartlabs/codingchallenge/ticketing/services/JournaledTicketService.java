@@ -0,0 +1,32 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A TicketService that writes its changes to a journal before it applies them. These calls find and claim the seats
+ * right away but don't wait for the journal: the future completes once the change is on disk and applied, or
+ * completes exceptionally if it couldn't be saved. A caller serving many requests on one thread hands the futures on
+ * instead of waiting a commit interval per request.
+ */
+public interface JournaledTicketService extends TicketService {
+
+    /**
+     * Find and hold the best available seats for a customer.
+     *
+     * @param numSeats      the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return the SeatHold once it is journaled
+     */
+    CompletableFuture<SeatHold> findAndHoldSeatsAsync(int numSeats, String customerEmail);
+
+    /**
+     * Commit seats held for a specific customer.
+     *
+     * @param seatHoldId    the seat hold identifier
+     * @param customerEmail the email address of the customer to which the seat hold is assigned
+     * @return the reservation confirmation code once the reservation is journaled
+     */
+    CompletableFuture<String> reserveSeatsAsync(int seatHoldId, String customerEmail);
+}
@@ -0,0 +1,184 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A TicketService that keeps any one customer from flooding the service it wraps. Every customer may hold up to
+ * maxHeldSeats seats at a time and send holds at a steady holdsPerSecond, with bursts of up to burst holds. Holds over
+ * either limit are turned down before the wrapped service searches for seats, so they cost a couple of atomic
+ * operations rather than a venue search under the service lock.
+ *
+ * Seats count against the quota from the moment a hold is let through until it is reserved or expires, so this
+ * service has to be registered as a SeatHoldListener of the service it wraps, and customers' holds should all go
+ * through it.
+ *
+ * The rate limit is a token bucket kept as a single timestamp per customer (the generic cell rate algorithm): the time
+ * at which the bucket would be full again, moved ahead by one interval per hold with a compare and set. Customers with
+ * no held seats and a full bucket are forgotten after a while, which loses nothing.
+ */
+public class QuotaTicketService implements TicketService, SeatHoldListener {
+
+    private final TicketService ticketService;
+    private final int maxHeldSeats;
+
+    /**
+     * Nanos between holds at the steady rate
+     */
+    private final long interval;
+
+    /**
+     * Nanos the bucket may run ahead of now, i.e. the burst beyond the first hold
+     */
+    private final long burstTolerance;
+
+    private final LoadingCache<String, Customer> customers;
+
+    private static final class Customer {
+
+        /**
+         * Seats held by the customer, including those of holds being made right now
+         */
+        final AtomicInteger heldSeats = new AtomicInteger();
+
+        /**
+         * Nano time at which the customer's bucket is full again
+         */
+        final AtomicLong bucketFullAt = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    /**
+     * @param ticketService   the service to protect
+     * @param seatHoldTimeout the seathold expiration timeout of that service, in seconds
+     * @param maxHeldSeats    the most seats a customer may hold at a time
+     * @param holdsPerSecond  the steady number of holds a customer may send per second
+     * @param burst           the most holds a customer may send at once after being idle
+     */
+    public QuotaTicketService(TicketService ticketService, long seatHoldTimeout, int maxHeldSeats,
+                              double holdsPerSecond, int burst) {
+
+        checkArgument(ticketService != null, "Please provide a ticket service");
+        checkArgument(seatHoldTimeout > 0, "Please provide a positive seat hold timeout");
+        checkArgument(maxHeldSeats > 0, "Please provide a positive seat quota");
+        checkArgument(holdsPerSecond > 0, "Please provide a positive hold rate");
+        checkArgument(burst > 0, "Please provide a positive burst");
+
+        this.ticketService = ticketService;
+        this.maxHeldSeats = maxHeldSeats;
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / holdsPerSecond);
+        this.burstTolerance = interval * (burst - 1);
+
+        // Once every hold of a customer expired and the bucket refilled there is nothing to remember
+        long idleNanos = Math.max(TimeUnit.SECONDS.toNanos(seatHoldTimeout), interval * burst);
+        this.customers = CacheBuilder.newBuilder()
+                .expireAfterAccess(idleNanos + TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS)
+                .build(CacheLoader.from(Customer::new));
+    }
+
+    @Override
+    public int numSeatsAvailable() {
+        return ticketService.numSeatsAvailable();
+    }
+
+    /**
+     * Find and hold the best available seats for a customer, unless the customer is over the hold rate or would hold
+     * more seats than the quota allows.
+     *
+     * @param numSeats      the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    @Override
+    public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+
+        checkArgument(customerEmail != null, "Please provide a valid email address");
+        checkArgument(numSeats > 0, "Please provide a valid number of seats you want to hold.");
+
+        Customer customer = customers.getUnchecked(customerEmail);
+        if (!takeToken(customer)) {
+            throw new TicketServiceException(String.format(
+                    "Too many hold requests from %s, please try again later.", customerEmail));
+        }
+        if (!claimSeats(customer, numSeats)) {
+            throw new TicketServiceException(String.format(
+                    "Customer %s can't hold more than %d seats at a time.", customerEmail, maxHeldSeats));
+        }
+
+        SeatHold seatHold = null;
+        try {
+            seatHold = ticketService.findAndHoldSeats(numSeats, customerEmail);
+            return seatHold;
+        } finally {
+            if (seatHold == null || seatHold.getId() == null) {
+                customer.heldSeats.addAndGet(-numSeats);
+            }
+        }
+    }
+
+    @Override
+    public String reserveSeats(int seatHoldId, String customerEmail) {
+        return ticketService.reserveSeats(seatHoldId, customerEmail);
+    }
+
+    @Override
+    public void onReserve(SeatHold seatHold) {
+        releaseSeats(seatHold);
+    }
+
+    @Override
+    public void onExpire(SeatHold seatHold) {
+        releaseSeats(seatHold);
+    }
+
+    /**
+     * @return the seats the customer holds as far as the quota is concerned
+     */
+    public int getHeldSeats(String customerEmail) {
+        Customer customer = customers.getIfPresent(customerEmail);
+        return customer == null ? 0 : customer.heldSeats.get();
+    }
+
+    private boolean takeToken(Customer customer) {
+        long now = System.nanoTime();
+        while (true) {
+            long fullAt = customer.bucketFullAt.get();
+            long start = fullAt == Long.MIN_VALUE || fullAt - now < 0 ? now : fullAt;
+            if (start - now > burstTolerance) {
+                return false;
+            }
+            if (customer.bucketFullAt.compareAndSet(fullAt, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean claimSeats(Customer customer, int numSeats) {
+        while (true) {
+            int held = customer.heldSeats.get();
+            if (held + numSeats > maxHeldSeats) {
+                return false;
+            }
+            if (customer.heldSeats.compareAndSet(held, held + numSeats)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseSeats(SeatHold seatHold) {
+        Customer customer = customers.getIfPresent(seatHold.getCustomerEmail());
+        if (customer != null) {
+            // Holds that didn't go through this service never counted, don't let them drive the count below zero
+            customer.heldSeats.accumulateAndGet(seatHold.getNumSeats(), (held, seats) -> Math.max(0, held - seats));
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+
+/**
+ * Gets told about every change to the seat holds of a TicketService. Listeners are called while the service applies
+ * the change, so they should be quick and must not call back into the service.
+ */
+public interface SeatHoldListener {
+
+    /**
+     * Seats were held for a customer.
+     *
+     * @param seatHold  the new seat hold
+     * @param expiresAt epoch millis at which the hold expires
+     */
+    default void onHold(SeatHold seatHold, long expiresAt) {
+    }
+
+    /**
+     * The seats of a hold were reserved.
+     *
+     * @param seatHold the seat hold that got reserved
+     */
+    default void onReserve(SeatHold seatHold) {
+    }
+
+    /**
+     * A hold expired and its seats were released.
+     *
+     * @param seatHold the seat hold that expired
+     */
+    default void onExpire(SeatHold seatHold) {
+    }
+}
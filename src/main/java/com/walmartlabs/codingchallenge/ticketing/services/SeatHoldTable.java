@@ -0,0 +1,203 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The active SeatHold objects by id, in an open addressing table keyed by plain ints, so holds don't box their ids and
+ * lookups don't chase entry objects.
+ *
+ * Collisions are probed linearly and removals shift the following entries back instead of leaving tombstones, so a
+ * table that sees millions of holds come and go never degrades. The holds of every customer are linked in a doubly
+ * linked list through the table (ids of the previous and next hold next to each hold), with only the head of each list
+ * in a map by email, so the holds of a customer are found without a scan and unlinked in constant time.
+ *
+ * Ids must be positive, 0 marks an empty slot. The table is not thread safe, callers are expected to guard it.
+ */
+class SeatHoldTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] ids;
+    private SeatHold[] holds;
+    private int[] previousOfCustomer;
+    private int[] nextOfCustomer;
+    private int mask;
+    private int size;
+
+    /**
+     * Id of the most recent hold of every customer with active holds
+     */
+    private final Map<String, Integer> customerHeads = new HashMap<>();
+
+    SeatHoldTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        holds = new SeatHold[capacity];
+        previousOfCustomer = new int[capacity];
+        nextOfCustomer = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the number of holds in the table
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the hold with the given id, null if there is none
+     */
+    SeatHold get(int id) {
+        int slot = find(id);
+        return slot < 0 ? null : holds[slot];
+    }
+
+    /**
+     * Adds the hold, replacing any hold with the same id.
+     */
+    void put(SeatHold seatHold) {
+
+        int id = seatHold.getId();
+        checkArgument(id > 0, "SeatHold ids must be positive");
+        remove(id);
+        if (size + 1 > (ids.length >> 1) + (ids.length >> 2)) {
+            resize(ids.length << 1);
+        }
+
+        Integer head = customerHeads.put(seatHold.getCustomerEmail(), id);
+        int next = head == null ? 0 : head;
+        insert(id, seatHold, 0, next);
+        if (next != 0) {
+            previousOfCustomer[find(next)] = id;
+        }
+        size++;
+    }
+
+    /**
+     * Removes the hold with the given id.
+     *
+     * @return the removed hold, null if there was none
+     */
+    SeatHold remove(int id) {
+
+        int slot = find(id);
+        if (slot < 0) {
+            return null;
+        }
+        SeatHold seatHold = holds[slot];
+        int previous = previousOfCustomer[slot];
+        int next = nextOfCustomer[slot];
+        if (previous == 0) {
+            if (next == 0) {
+                customerHeads.remove(seatHold.getCustomerEmail());
+            } else {
+                customerHeads.put(seatHold.getCustomerEmail(), next);
+            }
+        } else {
+            nextOfCustomer[find(previous)] = next;
+        }
+        if (next != 0) {
+            previousOfCustomer[find(next)] = previous;
+        }
+
+        // Shift the entries of the probe sequence back into the gap, as long as that doesn't move them before their
+        // home slot
+        int gap = slot;
+        for (int i = (slot + 1) & mask; ids[i] != 0; i = (i + 1) & mask) {
+            if (((i - home(ids[i])) & mask) >= ((i - gap) & mask)) {
+                ids[gap] = ids[i];
+                holds[gap] = holds[i];
+                previousOfCustomer[gap] = previousOfCustomer[i];
+                nextOfCustomer[gap] = nextOfCustomer[i];
+                gap = i;
+            }
+        }
+        ids[gap] = 0;
+        holds[gap] = null;
+        size--;
+        return seatHold;
+    }
+
+    /**
+     * @return the holds of the given customer, most recent first
+     */
+    List<SeatHold> forCustomer(String customerEmail) {
+        List<SeatHold> customerHolds = new ArrayList<>();
+        Integer head = customerHeads.get(customerEmail);
+        for (int id = head == null ? 0 : head; id != 0; ) {
+            int slot = find(id);
+            customerHolds.add(holds[slot]);
+            id = nextOfCustomer[slot];
+        }
+        return customerHolds;
+    }
+
+    /**
+     * @return all holds, in no particular order
+     */
+    List<SeatHold> values() {
+        List<SeatHold> values = new ArrayList<>(size);
+        for (SeatHold seatHold : holds) {
+            if (seatHold != null) {
+                values.add(seatHold);
+            }
+        }
+        return values;
+    }
+
+    private void resize(int capacity) {
+        int[] oldIds = ids;
+        SeatHold[] oldHolds = holds;
+        int[] oldPrevious = previousOfCustomer;
+        int[] oldNext = nextOfCustomer;
+        allocate(capacity);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != 0) {
+                insert(oldIds[i], oldHolds[i], oldPrevious[i], oldNext[i]);
+            }
+        }
+    }
+
+    private void insert(int id, SeatHold seatHold, int previous, int next) {
+        int slot = home(id);
+        while (ids[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        ids[slot] = id;
+        holds[slot] = seatHold;
+        previousOfCustomer[slot] = previous;
+        nextOfCustomer[slot] = next;
+    }
+
+    /**
+     * @return the slot of the given id, -1 if it's not in the table
+     */
+    private int find(int id) {
+        for (int slot = home(id); ids[slot] != 0; slot = (slot + 1) & mask) {
+            if (ids[slot] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ids are handed out in sequence, so they are scrambled before masking to spread runs of them over the table.
+     */
+    private int home(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+}
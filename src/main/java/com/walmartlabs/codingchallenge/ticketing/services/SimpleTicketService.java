@@ -1,26 +1,46 @@
 package com.walmartlabs.codingchallenge.ticketing.services;
 
+import com.walmartlabs.codingchallenge.ticketing.domain.HoldRequest;
+import com.walmartlabs.codingchallenge.ticketing.domain.HoldResult;
 import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
 import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.allocation.DefaultSeatAllocator;
+import com.walmartlabs.codingchallenge.ticketing.services.allocation.SeatAllocator;
 import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.TicketServiceMetrics;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.HoldJournal;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.VenueSnapshot;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * A Simple Concrete Implementation of TicketService
+ * A Simple Concrete Implementation of TicketService. Every call that changes holds runs under one service lock.
  */
-public class SimpleTicketService implements TicketService {
+public class SimpleTicketService implements BatchTicketService, JournaledTicketService {
 
     /**
      * Default seat hold expiration time is 60 seconds.
      */
     private static final long DEFAULT_SEAT_HOLD_TIMEOUT = 60;
+    /**
+     * Expirations are bucketed in 100 ms ticks, 1024 buckets cover a little over one and a half minutes.
+     */
+    private static final long EXPIRATION_TICK_MILLIS = 100;
+    private static final int EXPIRATION_WHEEL_SIZE = 1024;
     /**
      * An atomic integer for generation of ID's. Keeping it simple here as opposed to generating GUID's
      * and shrinking it or maintaining a collection for checking uniqueness.
@@ -28,10 +48,70 @@ public class SimpleTicketService implements TicketService {
     private final AtomicInteger atomicInteger = new AtomicInteger(0);
 
     /**
-     * A Map that holds all the SeatHold objects currently active.
+     * The last seat hold id of the snapshot the service was started from, 0 without one
+     */
+    private int snapshotSeatHoldId;
+
+    /**
+     * All the SeatHold objects currently active, by id and by customer.
+     */
+    private final SeatHoldTable seatHoldTable = new SeatHoldTable();
+
+    /**
+     * Expires active SeatHold objects in bulk once they are due.
+     */
+    private final HoldExpirationWheel expirationWheel =
+            new HoldExpirationWheel(EXPIRATION_TICK_MILLIS, EXPIRATION_WHEEL_SIZE, System.currentTimeMillis());
+
+    /**
+     * Listeners told about every hold, reservation and expiration.
+     */
+    private final List<SeatHoldListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The journal every change is written to before it is applied, if any, guarded by the service lock
+     */
+    private HoldJournal journal;
+
+    /**
+     * The journal write of the hold or reservation made by the current call, guarded by the service lock
+     */
+    private CompletableFuture<Void> journalWrite;
+
+    /**
+     * Changes of the current call that are applied once the journal has them, guarded by the service lock
+     */
+    private final List<Runnable> journaledChanges = new ArrayList<>();
+
+    /**
+     * Give back what the current call claimed if the journal can't take its changes, guarded by the service lock
+     */
+    private final List<Runnable> claimUndos = new ArrayList<>();
+
+    /**
+     * The number of calls waiting for the journal with seats claimed, guarded by the service lock
+     */
+    private int unjournaledCalls;
+
+    /**
+     * The service lock. An explicit lock rather than the monitor, so the time callers wait for it can be measured.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled once no call waits for the journal anymore
+     */
+    private final Condition journalSettled = lock.newCondition();
+
+    /**
+     * Latencies and counters of this service
      */
-    private final Map<Integer, SeatHold> seatHoldMap = new HashMap<>();
+    private final TicketServiceMetrics metrics;
 
+    /**
+     * Picks the seats of every hold
+     */
+    private final SeatAllocator seatAllocator;
 
     /**
      * The seathold expiration timeout.
@@ -59,9 +139,211 @@ public class SimpleTicketService implements TicketService {
      * @param seatHoldTimeout
      */
     public SimpleTicketService(Venue venue, long seatHoldTimeout) {
+        this(venue, seatHoldTimeout, new TicketServiceMetrics());
+    }
 
+    /**
+     * Overloaded constructor recording into the given metrics, e.g., to share them between services
+     *
+     * @param venue
+     * @param seatHoldTimeout
+     * @param metrics
+     */
+    public SimpleTicketService(Venue venue, long seatHoldTimeout, TicketServiceMetrics metrics) {
+        this(venue, seatHoldTimeout, metrics, new DefaultSeatAllocator());
+    }
+
+    /**
+     * Overloaded constructor picking seats with the given allocator instead of the default one
+     *
+     * @param venue
+     * @param seatHoldTimeout
+     * @param metrics
+     * @param seatAllocator
+     */
+    public SimpleTicketService(Venue venue, long seatHoldTimeout, TicketServiceMetrics metrics,
+                               SeatAllocator seatAllocator) {
+
+        checkArgument(metrics != null, "Please provide the metrics to record into");
+        checkArgument(seatAllocator != null, "Please provide a seat allocator");
         this.venue = venue;
         this.seatHoldTimeout = seatHoldTimeout;
+        this.metrics = metrics;
+        this.seatAllocator = seatAllocator;
+    }
+
+    /**
+     * @return the latencies and counters of this service, see {@link TicketServiceMetrics#snapshot()}
+     */
+    public TicketServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Takes the service lock, recording how long it took unless the caller holds it already.
+     */
+    private void lock() {
+        if (lock.isHeldByCurrentThread()) {
+            lock.lock();
+        } else if (lock.tryLock()) {
+            metrics.recordLockWait(0);
+        } else {
+            long start = System.nanoTime();
+            lock.lock();
+            metrics.recordLockWait(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registers a listener that gets told about every hold, reservation and expiration from now on.
+     *
+     * @param listener
+     */
+    public void addSeatHoldListener(SeatHoldListener listener) {
+        checkArgument(listener != null, "Please provide a listener");
+        listeners.add(listener);
+    }
+
+    /**
+     * Writes every hold, reservation and expiration to the journal before applying it. Holds and reservations are only
+     * handed out once the journal has them on disk.
+     *
+     * @param journal the journal, recovered already if it has events
+     */
+    public void setJournal(HoldJournal journal) {
+        checkArgument(journal != null, "Please provide a journal");
+        lock();
+        try {
+            this.journal = journal;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a service from a snapshot, with its seat holds active again and expiring at their original time.
+     *
+     * @param snapshot        the snapshot to start from
+     * @param seatHoldTimeout the seathold expiration timeout for new holds
+     * @return the restored service
+     */
+    public static SimpleTicketService fromSnapshot(VenueSnapshot snapshot, long seatHoldTimeout) {
+
+        SimpleTicketService service = new SimpleTicketService(snapshot.getVenue(), seatHoldTimeout);
+        for (SeatHold seatHold : snapshot.getSeatHolds()) {
+            long expiresAt = snapshot.getVenue().getHoldExpiration(seatHold.getSeats()[0]);
+            service.seatHoldTable.put(seatHold);
+            service.expirationWheel.schedule(seatHold.getId(), expiresAt);
+        }
+        service.atomicInteger.set(snapshot.getLastSeatHoldId());
+        service.snapshotSeatHoldId = snapshot.getLastSeatHoldId();
+        return service;
+    }
+
+    /**
+     * Writes a snapshot of the venue and the active seat holds, once the calls waiting for the journal are done.
+     *
+     * @param snapshotFile the file to write the snapshot to
+     */
+    public void writeSnapshot(Path snapshotFile) throws IOException {
+        lock();
+        try {
+            // Seats claimed by a call waiting for the journal would end up in the snapshot without their hold
+            while (unjournaledCalls > 0) {
+                journalSettled.awaitUninterruptibly();
+            }
+            new VenueSnapshot(venue, atomicInteger.get(), seatHoldTable.values()).write(snapshotFile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot and drops the events of the journal, which the snapshot covers now. No event gets journaled
+     * in between because journal appends happen under the service lock as well.
+     *
+     * @param snapshotFile the file to write the snapshot to
+     * @param journal      the journal this service appends to
+     */
+    public void checkpoint(Path snapshotFile, HoldJournal journal) throws IOException {
+        lock();
+        try {
+            writeSnapshot(snapshotFile);
+            journal.reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the seat holds and reservations recorded in the journal, on top of the snapshot the service was started
+     * from if any. Holds that expired while the service was down are released on the next service call. Listeners are
+     * not told about the replayed events, so this has to happen before the service takes any calls.
+     *
+     * Holds the snapshot has already are skipped, in case the service went down after the snapshot was written but
+     * before the journal was emptied. Their reservations and expirations find no hold and change nothing either.
+     *
+     * @param journal the journal to replay
+     * @return the number of replayed events
+     */
+    public long recover(HoldJournal journal) throws IOException {
+
+        lock();
+        try {
+            return replay(journal);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long replay(HoldJournal journal) throws IOException {
+
+        return journal.replay(new HoldJournal.ReplayHandler() {
+            @Override
+            public void onHold(SeatHold seatHold, long expiresAt) {
+                if (seatHold.getId() <= snapshotSeatHoldId) {
+                    return;
+                }
+                venue.holdSeatsUntil(seatHold.getSeats(), expiresAt);
+                seatHoldTable.put(seatHold);
+                expirationWheel.schedule(seatHold.getId(), expiresAt);
+                atomicInteger.accumulateAndGet(seatHold.getId(), Math::max);
+            }
+
+            @Override
+            public void onReserve(int seatHoldId) {
+                SeatHold seatHold = seatHoldTable.remove(seatHoldId);
+                if (seatHold != null) {
+                    venue.reserveSeats(seatHold.getSeats());
+                }
+            }
+
+            @Override
+            public void onExpire(int seatHoldId) {
+                SeatHold seatHold = seatHoldTable.remove(seatHoldId);
+                if (seatHold != null) {
+                    venue.releaseSeats(seatHold.getSeats());
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds the active holds of a customer, e.g., for support or fraud checks, without looking at anyone else's.
+     *
+     * @param customerEmail unique identifier for the customer
+     * @return the customer's holds that are neither expired nor reserved, most recent first
+     */
+    public List<SeatHold> findSeatHolds(String customerEmail) {
+
+        checkArgument(customerEmail != null, "Please provide a valid email address");
+        lock();
+        try {
+            expireHolds();
+            return seatHoldTable.forCustomer(customerEmail);
+        } finally {
+            lock.unlock();
+        }
     }
 
     //Start - Interface Implementation Block
@@ -69,13 +351,46 @@ public class SimpleTicketService implements TicketService {
     /**
      * The number of seats in the venue that are neither held nor reserved.
      *
+     * The venue keeps an exact count, so the service lock is only taken when holds are due to expire.
+     *
      * @return the number of tickets available in the venue
      */
     @Override
-    public synchronized int numSeatsAvailable() {
+    public int numSeatsAvailable() {
+        if (expirationWheel.isDue(System.currentTimeMillis())) {
+            expireHolds();
+        }
         return venue.getAvailableSeatCount();
     }
 
+    /**
+     * Expires all the seat holds that are due, releasing their seats and forgetting the SeatHold objects. This runs
+     * as part of every service call but can also be called on a schedule to clean up when the service is idle.
+     */
+    public void expireHolds() {
+        lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (!expirationWheel.isDue(now)) {
+                return;
+            }
+            expirationWheel.advance(now, seatHoldId -> {
+                SeatHold seatHold = seatHoldTable.remove(seatHoldId);
+                // Reserved holds are gone from the map already
+                if (seatHold != null) {
+                    if (journal != null) {
+                        journal.appendExpire(seatHold);
+                    }
+                    venue.releaseSeats(seatHold.getSeats());
+                    notifyListeners(listener -> listener.onExpire(seatHold));
+                    metrics.recordExpiry();
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
 
     /**
      * Find and hold the best available seats for a customer.
@@ -85,62 +400,127 @@ public class SimpleTicketService implements TicketService {
      * @return a SeatHold object identifying the specific seats and related information
      */
     @Override
-    public synchronized SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+    public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+        return awaitJournaled(findAndHoldSeatsAsync(numSeats, customerEmail));
+    }
 
+    /**
+     * Find and hold the best available seats for a customer without waiting for the journal.
+     *
+     * @param numSeats      the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return the SeatHold once it is journaled
+     */
+    @Override
+    public CompletableFuture<SeatHold> findAndHoldSeatsAsync(int numSeats, String customerEmail) {
+        long start = System.nanoTime();
+        try {
+            return journaled(() -> findAndHold(numSeats, customerEmail))
+                    .whenComplete((seatHold, failure) -> metrics.recordFindAndHold(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            metrics.recordFindAndHold(System.nanoTime() - start);
+            throw ex;
+        }
+    }
+
+    /**
+     * Find and hold seats for a whole batch of requests under a single lock acquisition, expiring holds once for the
+     * batch rather than once per request. Seats are still searched request by request, as every hold changes what's
+     * free for the next one. Results come back in the order of the requests, whatever order they were allocated in.
+     *
+     * @param requests the hold requests
+     * @param order    the order in which seats are allocated to the requests
+     * @return one result per request, holding either the SeatHold or the reason it failed
+     */
+    @Override
+    public List<HoldResult> findAndHoldSeats(List<HoldRequest> requests, BatchOrder order) {
+
+        checkArgument(requests != null, "Please provide the hold requests");
+        checkArgument(order != null, "Please provide a batch order");
+
+        long start = System.nanoTime();
+        try {
+            // Commits go in order, so the last write of the batch being on disk means all of them are
+            return awaitJournaled(journaled(() -> findAndHoldBatch(requests, order)));
+        } finally {
+            metrics.recordBatch(System.nanoTime() - start, requests.size());
+        }
+    }
+
+    private List<HoldResult> findAndHoldBatch(List<HoldRequest> requests, BatchOrder order) {
+
+        expireHolds();
+        HoldResult[] results = new HoldResult[requests.size()];
+        for (int index : order.allocationOrder(requests)) {
+            HoldRequest request = requests.get(index);
+            try {
+                checkHoldRequest(request.getNumSeats(), request.getCustomerEmail());
+                SeatHold seatHold = holdBestSeats(request.getNumSeats(), request.getCustomerEmail());
+                results[index] = seatHold.getId() != null
+                        ? HoldResult.success(request, seatHold)
+                        : HoldResult.failure(request, String.format("We couldn't find %d seats together or in blocks right now.",
+                        request.getNumSeats()));
+            } catch (IllegalArgumentException | TicketServiceException ex) {
+                results[index] = HoldResult.failure(request, ex.getMessage());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validates the request and finds and holds the seats, the caller must hold the service lock.
+     */
+    private SeatHold findAndHold(int numSeats, String customerEmail) {
+
+        checkHoldRequest(numSeats, customerEmail);
+        expireHolds();
+        return holdBestSeats(numSeats, customerEmail);
+    }
+
+    private void checkHoldRequest(int numSeats, String customerEmail) {
         checkArgument(!customerEmail.isEmpty(), "Please provide a valid email address");
         checkArgument(numSeats > 0, "Please provide a valid number of seats you want to hold.");
         checkArgument(numSeats < venue.getTotalSeats(), "You are requesting to hold more than the whole venue. ");
+    }
+
+    /**
+     * Lets the allocator pick the best seats and holds them, the caller must hold the service lock and have expired
+     * holds that are due.
+     */
+    private SeatHold holdBestSeats(int numSeats, String customerEmail) {
 
         if (this.venue.getAvailableSeatCount() < numSeats) {
 
+            metrics.recordRejection();
             throw new TicketServiceException(String.format("We don't have %d many seats available right now.", numSeats));
         }
 
-        // Now that we have taken care of input validation, let's see how we want to find the best seats.
-        // Since it's a rectangular venue, We'll consider the seat layout in terms of rows and columns.
+        // Now that we have taken care of input validation, let the allocator pick the best seats.
+        int[][] blocks = seatAllocator.findSeats(venue, numSeats);
 
-        // Step 1: Find all requested seats in sequence.
-        int[] seats = venue.findSequentSeats(numSeats, null);
+        if (blocks.length == 1) {
 
-        if (seats.length > 0) {
+            // Excellent!! We found all requested seats together in one block. Now let's go hold them.
+            metrics.recordHold(false);
+            return holdSeats(numSeats, blocks[0], customerEmail);
 
-            // Excellent!! We found all requested seats together in one row. Now let's go hold them.
-            return holdSeats(numSeats, seats, customerEmail);
+        } else if (blocks.length > 1) {
 
-        } else {
-
-            // Since we didn't find all seats together, now lets see if we can find in groups
-            List<Integer> blockSeats = new ArrayList<>();
-            int seatsFound = 0;
-            int seatBlock = numSeats - 1;
-
-            //We'll decrease the requested number of seats by one and repeat the lookup process
-            while (seatBlock > 0 && (seatsFound <= numSeats)) {
-                int[] seatIds = venue.findSequentSeats(seatBlock, blockSeats);
-                if (seatIds.length > 0) {
-                    seatsFound += seatIds.length;
-                    seatBlock = numSeats - seatsFound;
-                    for (int x : seatIds) {
-                        blockSeats.add(x);
-                    }
-                } else {
-                    seatBlock--;
-                }
-            }
-
-            //If we found all seats in different blocks, hold them otherwise send empty SeatHold
-            if (blockSeats.size() == numSeats) {
-
-                int[] tempSeatIds = blockSeats.stream().mapToInt(s -> s).toArray();
-                return holdSeats(numSeats, tempSeatIds, customerEmail);
-            }
+            // The group is seated in several blocks
+            metrics.recordFallbackIterations(blocks.length);
+            metrics.recordHold(true);
+            int[] tempSeatIds = Arrays.stream(blocks).flatMapToInt(Arrays::stream).toArray();
+            return holdSeats(numSeats, tempSeatIds, customerEmail);
         }
 
+        metrics.recordHoldFailure();
         return new SeatHold();
     }
 
     /**
-     * Just an internal method for code reuse.
+     * Just an internal method for code reuse. The hold is journaled before anything else changes, so a journal that
+     * can't take it leaves the service as it was. Its seats are held right away so no one else gets them, the hold
+     * itself only becomes active once the journal has it.
      *
      * @param numSeats
      * @param seats
@@ -149,12 +529,112 @@ public class SimpleTicketService implements TicketService {
     private SeatHold holdSeats(int numSeats, int[] seats, String customerEmail) {
 
         SeatHold seatHold = new SeatHold(atomicInteger.incrementAndGet(), numSeats, seats, customerEmail);
-        seatHoldMap.put(seatHold.getId(), seatHold);
+        long expiresAt = System.currentTimeMillis() + this.seatHoldTimeout * 1000;
+        if (journal != null) {
+            journalWrite = journal.appendHold(seatHold, expiresAt);
+        }
 
-        venue.holdSeats(seats, this.seatHoldTimeout);
+        venue.holdSeatsUntil(seats, expiresAt);
+        applyOnceJournaled(() -> {
+            seatHoldTable.put(seatHold);
+            expirationWheel.schedule(seatHold.getId(), expiresAt);
+            notifyListeners(listener -> listener.onHold(seatHold, expiresAt));
+        }, () -> venue.releaseSeats(seats));
         return seatHold;
     }
 
+    /**
+     * Applies a change of the current call once the journal has it, right away if there is no journal.
+     *
+     * @param change    applies the change
+     * @param undoClaim gives back what the call claimed for the change if the journal can't take it
+     */
+    private void applyOnceJournaled(Runnable change, Runnable undoClaim) {
+        if (journal == null) {
+            change.run();
+        } else {
+            journaledChanges.add(change);
+            claimUndos.add(undoClaim);
+        }
+    }
+
+    /**
+     * Runs a call under the service lock and applies its changes once the journal has them on disk, on the thread that
+     * completes the journal write. Nobody waits under the service lock, so calls waiting for the same commit don't
+     * hold each other up. If the journal can't take the changes, what the call claimed is given back and the result
+     * fails: a change is either applied and answered or neither.
+     */
+    private <T> CompletableFuture<T> journaled(Supplier<T> call) {
+
+        T result;
+        CompletableFuture<Void> written;
+        List<Runnable> changes;
+        List<Runnable> undos;
+        lock();
+        try {
+            journalWrite = null;
+            result = call.get();
+            written = journalWrite;
+            if (written == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            changes = new ArrayList<>(journaledChanges);
+            undos = new ArrayList<>(claimUndos);
+            unjournaledCalls++;
+        } catch (RuntimeException ex) {
+            claimUndos.forEach(Runnable::run);
+            throw ex;
+        } finally {
+            journaledChanges.clear();
+            claimUndos.clear();
+            lock.unlock();
+        }
+
+        return written.handle((ignored, failure) -> {
+            lock();
+            try {
+                (failure == null ? changes : undos).forEach(Runnable::run);
+            } finally {
+                if (--unjournaledCalls == 0) {
+                    journalSettled.signalAll();
+                }
+                lock.unlock();
+            }
+            if (failure != null) {
+                throw new TicketServiceException("We couldn't save your request, please try again.");
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Waits for a call to be journaled and applied, failing the way the call itself would have.
+     */
+    private static <T> T awaitJournaled(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Tells every listener about a change that is applied already. A listener that fails neither undoes the change nor
+     * keeps the other listeners from hearing about it, so callers are never told a change failed that happened.
+     */
+    private void notifyListeners(Consumer<SeatHoldListener> event) {
+        for (SeatHoldListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException ex) {
+                // The change stands whatever the listener made of it
+            }
+        }
+    }
+
 
     /**
      * Commit seats held for a specific customer.
@@ -164,14 +644,43 @@ public class SimpleTicketService implements TicketService {
      * @return a reservation confirmation code
      */
     @Override
-    public synchronized String reserveSeats(int seatHoldId, String customerEmail) {
+    public String reserveSeats(int seatHoldId, String customerEmail) {
+        return awaitJournaled(reserveSeatsAsync(seatHoldId, customerEmail));
+    }
+
+    /**
+     * Commit seats held for a specific customer without waiting for the journal.
+     *
+     * @param seatHoldId    the seat hold identifier
+     * @param customerEmail the email address of the customer to which the seat hold is assigned
+     * @return the reservation confirmation code once the reservation is journaled
+     */
+    @Override
+    public CompletableFuture<String> reserveSeatsAsync(int seatHoldId, String customerEmail) {
 
         checkArgument(!customerEmail.isEmpty(), "Please provide a valid email address");
         checkArgument(seatHoldId > 0, "Please provide a valid SeatHold id.");
 
+        long start = System.nanoTime();
+        try {
+            return journaled(() -> reserve(seatHoldId, customerEmail))
+                    .whenComplete((reservationCode, failure) -> metrics.recordReserve(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            metrics.recordReserve(System.nanoTime() - start);
+            throw ex;
+        }
+    }
+
+    /**
+     * Reserves the seats of the hold, the caller must hold the service lock. Taking the hold out of the table claims
+     * it, so neither another reservation nor its expiration gets it while the journal writes the reservation.
+     */
+    private String reserve(int seatHoldId, String customerEmail) {
+
         String reservationCode = "";
 
-        SeatHold seatHold = seatHoldMap.get(seatHoldId);
+        expireHolds();
+        SeatHold seatHold = seatHoldTable.get(seatHoldId);
 
 
         if (seatHold == null) {
@@ -186,9 +695,20 @@ public class SimpleTicketService implements TicketService {
 
         int[] reservedSeatIds = seatHold.getSeats();
         if (reservedSeatIds.length > 0) {
+            if (journal != null) {
+                journalWrite = journal.appendReserve(seatHold);
+            }
             reservationCode = "R" + seatHold.getId().toString();
-            seatHoldMap.remove(seatHoldId);
-            venue.reserveSeats(reservedSeatIds);
+            seatHoldTable.remove(seatHoldId);
+            applyOnceJournaled(() -> {
+                venue.reserveSeats(reservedSeatIds);
+                notifyListeners(listener -> listener.onReserve(seatHold));
+                metrics.recordReservation();
+            }, () -> {
+                // Back to how it was, the wheel may have passed the hold by while it was claimed
+                seatHoldTable.put(seatHold);
+                expirationWheel.schedule(seatHoldId, venue.getHoldExpiration(reservedSeatIds[0]));
+            });
         }
 
         return reservationCode;
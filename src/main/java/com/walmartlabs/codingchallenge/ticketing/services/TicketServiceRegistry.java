@@ -0,0 +1,142 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.TicketServiceMetrics;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Sells many events at once, each from its own shard: a venue, a SimpleTicketService over it and an event loop thread
+ * that is the only caller of that service. Shards share no lock and no thread, so a rush on one event only queues up
+ * requests for that event, and events are served in parallel on as many cores as there are.
+ *
+ * Calls are routed by event id. Every shard keeps a parked thread while idle, which is cheap for hundreds of events.
+ */
+public class TicketServiceRegistry implements Closeable {
+
+    private final ConcurrentMap<Integer, Shard> shards = new ConcurrentHashMap<>();
+
+    /**
+     * Opens sales for an event.
+     *
+     * @param eventId         the event the venue is booked for
+     * @param venue           the venue of the event, not shared with any other event
+     * @param seatHoldTimeout the seathold expiration timeout
+     * @return the service of the event
+     */
+    public AsyncTicketService register(int eventId, Venue venue, long seatHoldTimeout) {
+
+        checkArgument(venue != null, "Please provide a venue");
+        Shard shard = shards.computeIfAbsent(eventId, id -> new Shard(venue, seatHoldTimeout));
+        checkArgument(shard.venue == venue, "Event %s is registered already", eventId);
+        return shard.eventLoop;
+    }
+
+    /**
+     * Closes sales for an event, requests already queued for it are still served.
+     *
+     * @param eventId
+     */
+    public void deregister(int eventId) {
+        Shard shard = shards.remove(eventId);
+        if (shard != null) {
+            shard.eventLoop.close();
+        }
+    }
+
+    /**
+     * @return the ids of the events on sale
+     */
+    public Set<Integer> getEventIds() {
+        return Collections.unmodifiableSet(shards.keySet());
+    }
+
+    /**
+     * @param eventId
+     * @return the service of the event
+     * @throws TicketServiceException if the event is not on sale
+     */
+    public AsyncTicketService forEvent(int eventId) {
+        return shard(eventId).eventLoop;
+    }
+
+    /**
+     * @param eventId
+     * @return the latencies and counters of the event's service
+     * @throws TicketServiceException if the event is not on sale
+     */
+    public TicketServiceMetrics getMetrics(int eventId) {
+        return shard(eventId).ticketService.getMetrics();
+    }
+
+    private Shard shard(int eventId) {
+        Shard shard = shards.get(eventId);
+        if (shard == null) {
+            throw new TicketServiceException(String.format("Event with id: %d is not on sale.", eventId));
+        }
+        return shard;
+    }
+
+    /**
+     * @see AsyncTicketService#numSeatsAvailable()
+     */
+    public CompletableFuture<Integer> numSeatsAvailable(int eventId) {
+        Shard shard = shards.get(eventId);
+        return shard != null ? shard.eventLoop.numSeatsAvailable() : notOnSale(eventId);
+    }
+
+    /**
+     * @see AsyncTicketService#findAndHoldSeats(int, String)
+     */
+    public CompletableFuture<SeatHold> findAndHoldSeats(int eventId, int numSeats, String customerEmail) {
+        Shard shard = shards.get(eventId);
+        return shard != null ? shard.eventLoop.findAndHoldSeats(numSeats, customerEmail) : notOnSale(eventId);
+    }
+
+    /**
+     * @see AsyncTicketService#reserveSeats(int, String)
+     */
+    public CompletableFuture<String> reserveSeats(int eventId, int seatHoldId, String customerEmail) {
+        Shard shard = shards.get(eventId);
+        return shard != null ? shard.eventLoop.reserveSeats(seatHoldId, customerEmail) : notOnSale(eventId);
+    }
+
+    private static <T> CompletableFuture<T> notOnSale(int eventId) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(new TicketServiceException(String.format("Event with id: %d is not on sale.", eventId)));
+        return result;
+    }
+
+    /**
+     * Closes sales for every event.
+     */
+    @Override
+    public void close() {
+        for (Integer eventId : shards.keySet()) {
+            deregister(eventId);
+        }
+    }
+
+    private static final class Shard {
+
+        private final Venue venue;
+        private final SimpleTicketService ticketService;
+        private final EventLoopTicketService eventLoop;
+
+        private Shard(Venue venue, long seatHoldTimeout) {
+            this.venue = venue;
+            this.ticketService = new SimpleTicketService(venue, seatHoldTimeout);
+            this.eventLoop = new EventLoopTicketService(ticketService);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A virtual waiting room in front of findAndHoldSeats. At most maxConcurrent holds are searched for at a time, the
+ * callers behind them wait in a bounded first come first served queue, and once that is full further callers are
+ * turned away at once instead of piling up. The wrapped service so keeps running at its best throughput however many
+ * callers arrive, and callers learn their place in line rather than timing out and retrying.
+ *
+ * Every caller entering the room gets an {@link Admission}, telling its position in line and an estimated wait from
+ * how long recent holds took. Availability and reservations are cheap and go straight to the wrapped service.
+ */
+public class WaitingRoom implements TicketService, Closeable {
+
+    /**
+     * Weight of the latest hold in the moving average of hold durations, as a shift (1/8)
+     */
+    private static final int AVERAGE_SHIFT = 3;
+
+    private final TicketService ticketService;
+    private final int maxConcurrent;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Callers that entered the room and callers whose hold started, in the order they entered
+     */
+    private final AtomicLong entered = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+
+    /**
+     * Moving average of the duration of holds, in nanos
+     */
+    private final AtomicLong averageHoldNanos = new AtomicLong();
+
+    /**
+     * A caller's place in the waiting room.
+     */
+    public class Admission {
+
+        private final long number;
+        private final CompletableFuture<SeatHold> seatHold = new CompletableFuture<>();
+
+        private Admission(long number) {
+            this.number = number;
+        }
+
+        /**
+         * @return how many callers ahead in line still wait for their turn, 0 once this one is next or being served
+         */
+        public long getPosition() {
+            return Math.max(0, number - started.get());
+        }
+
+        /**
+         * @return how long until the hold is searched for, estimated from the position and recent holds
+         */
+        public long getEstimatedWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(getPosition() * averageHoldNanos.get() / maxConcurrent);
+        }
+
+        /**
+         * @return the hold once it's made, failed with whatever the wrapped service threw otherwise
+         */
+        public CompletableFuture<SeatHold> getSeatHold() {
+            return seatHold;
+        }
+    }
+
+    /**
+     * @param ticketService the service to admit callers to
+     * @param maxConcurrent the most holds searched for at a time, about the cores the wrapped service can use
+     * @param capacity      the most callers waiting in line
+     */
+    public WaitingRoom(TicketService ticketService, int maxConcurrent, int capacity) {
+
+        checkArgument(ticketService != null, "Please provide a ticket service");
+        checkArgument(maxConcurrent > 0, "Please allow at least one hold at a time");
+        checkArgument(capacity > 0, "Please provide a positive capacity");
+
+        this.ticketService = ticketService;
+        this.maxConcurrent = maxConcurrent;
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity, true), runnable -> {
+            Thread thread = new Thread(runnable, "waiting-room");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Enters the waiting room to find and hold seats.
+     *
+     * @param numSeats      the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return the caller's admission, with the hold to come
+     * @throws TicketServiceException if the waiting room is full
+     */
+    public Admission enter(int numSeats, String customerEmail) {
+
+        Admission admission;
+        // Numbers are handed out in the order callers get in line
+        synchronized (this) {
+            admission = new Admission(entered.get());
+            try {
+                executor.execute(() -> hold(admission, numSeats, customerEmail));
+            } catch (RejectedExecutionException ex) {
+                throw new TicketServiceException(executor.isShutdown()
+                        ? "The waiting room is closed." : "The waiting room is full, please try again later.");
+            }
+            entered.incrementAndGet();
+        }
+        return admission;
+    }
+
+    private void hold(Admission admission, int numSeats, String customerEmail) {
+        started.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            admission.seatHold.complete(ticketService.findAndHoldSeats(numSeats, customerEmail));
+        } catch (RuntimeException ex) {
+            admission.seatHold.completeExceptionally(ex);
+        } finally {
+            long duration = System.nanoTime() - start;
+            averageHoldNanos.accumulateAndGet(duration, (average, latest) -> average == 0
+                    ? latest : average + ((latest - average) >> AVERAGE_SHIFT));
+        }
+    }
+
+    /**
+     * @return the number of callers waiting in line
+     */
+    public int getQueueLength() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int numSeatsAvailable() {
+        return ticketService.numSeatsAvailable();
+    }
+
+    /**
+     * Find and hold the best available seats for a customer, waiting in line for it.
+     *
+     * @param numSeats      the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return a SeatHold object identifying the specific seats and related information
+     * @throws TicketServiceException if the waiting room is full
+     */
+    @Override
+    public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+        try {
+            return enter(numSeats, customerEmail).getSeatHold().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public String reserveSeats(int seatHoldId, String customerEmail) {
+        return ticketService.reserveSeats(seatHoldId, customerEmail);
+    }
+
+    /**
+     * Stops admitting callers, those in line still get their holds.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.walmartlabs.codingchallenge.ticketing.services.allocation;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Seats a group that no single row can take in a rectangular block over adjacent rows, e.g. a party of 30 in a venue
+ * 10 seats wide gets the same 10 columns in three rows behind each other, see
+ * {@link Venue#findAdjacentRowSeats(int, int)}. Groups a row can take are seated like {@link DefaultSeatAllocator}
+ * does, and so are groups that no block of at most maxRows rows fits.
+ */
+public class AdjacentRowsSeatAllocator implements SeatAllocator {
+
+    /**
+     * Blocks deeper than this many rows stop feeling like sitting together
+     */
+    public static final int DEFAULT_MAX_ROWS = 4;
+
+    private final int maxRows;
+
+    public AdjacentRowsSeatAllocator() {
+        this(DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * @param maxRows the most rows a block may span, at least 2
+     */
+    public AdjacentRowsSeatAllocator(int maxRows) {
+        checkArgument(maxRows >= 2, "A block has to span at least 2 rows");
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public int[][] findSeats(Venue venue, int numSeats) {
+        int[] seats = venue.findSequentSeats(numSeats, null);
+        if (seats.length > 0) {
+            return new int[][]{seats};
+        }
+        int[][] block = venue.findAdjacentRowSeats(numSeats, maxRows);
+        return block.length > 0 ? block : venue.findSplitSeats(numSeats);
+    }
+
+}
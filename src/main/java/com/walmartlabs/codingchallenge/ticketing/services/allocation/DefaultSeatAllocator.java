@@ -0,0 +1,24 @@
+package com.walmartlabs.codingchallenge.ticketing.services.allocation;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+
+/**
+ * Seats the group together in the best section that can take it, in the front most row of that section that can, at
+ * the best rated seats of that row. Sections with fewer available seats than the group are skipped without looking at
+ * their rows. A group that no row can take is split over as few blocks as possible, see
+ * {@link Venue#findSplitSeats(int)}.
+ */
+public class DefaultSeatAllocator implements SeatAllocator {
+
+    @Override
+    public int[][] findSeats(Venue venue, int numSeats) {
+        for (int section = 0; section < venue.getSections().size(); section++) {
+            int[] seats = venue.findSequentSeatsInSection(section, numSeats);
+            if (seats.length > 0) {
+                return new int[][]{seats};
+            }
+        }
+        return venue.findSplitSeats(numSeats);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.walmartlabs.codingchallenge.ticketing.services.allocation;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+
+/**
+ * Decides which seats a group gets. The ticket service asks its allocator for seats and holds whatever it picks, so
+ * allocators only look at the venue and never change it.
+ */
+public interface SeatAllocator {
+
+    /**
+     * Picks the seats for a group.
+     *
+     * @param venue    the venue to pick from, the caller keeps other holds out meanwhile
+     * @param numSeats the size of the group
+     * @return the picked seat ids, one array per block of seats next to each other, no blocks if the group can't be
+     * seated
+     */
+    int[][] findSeats(Venue venue, int numSeats);
+
+}
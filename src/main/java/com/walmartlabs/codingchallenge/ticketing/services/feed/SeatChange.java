@@ -0,0 +1,66 @@
+package com.walmartlabs.codingchallenge.ticketing.services.feed;
+
+
+import java.util.Arrays;
+
+/**
+ * One entry of the {@link SeatChangeFeed}: the seats of a hold moved to a new state. Changes carry the state the seats
+ * are in afterwards rather than what happened to them, so applying a change twice to a seat map is harmless.
+ */
+public final class SeatChange {
+
+    public enum Type {
+        /**
+         * The seats were held
+         */
+        HELD,
+        /**
+         * The held seats were reserved
+         */
+        RESERVED,
+        /**
+         * The hold expired and its seats are available again
+         */
+        EXPIRED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final int seatHoldId;
+    private final int[] seatIds;
+
+    SeatChange(long sequence, Type type, int seatHoldId, int[] seatIds) {
+        this.sequence = sequence;
+        this.type = type;
+        this.seatHoldId = seatHoldId;
+        this.seatIds = seatIds;
+    }
+
+    /**
+     * @return the position of this change in the feed, counting up by one from 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getSeatHoldId() {
+        return seatHoldId;
+    }
+
+    /**
+     * @return the seats that changed, shared with every reader so not to be modified
+     */
+    public int[] getSeatIds() {
+        return seatIds;
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + type + " " + seatHoldId + " " + Arrays.toString(seatIds);
+    }
+
+}
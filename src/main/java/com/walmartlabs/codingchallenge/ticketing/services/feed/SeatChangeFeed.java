@@ -0,0 +1,156 @@
+package com.walmartlabs.codingchallenge.ticketing.services.feed;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.services.SeatHoldListener;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A feed of seat state changes, for clients that follow a live seat map. Register it as a SeatHoldListener of a
+ * service and every hold, reservation and expiration is appended as one {@link SeatChange} with the next sequence
+ * number. Viewers load the seat map once and from then on only read the changes after the last sequence they saw, so
+ * following the map costs a few bytes per change instead of the whole venue per poll.
+ *
+ * The feed keeps the latest capacity changes in a ring, shared by all readers: appending is one slot write whatever the
+ * number of viewers, and a viewer that reconnects resumes from its last sequence. A viewer that fell further behind
+ * than the ring reaches has to load the seat map again. To pick up the feed right after loading the map, take
+ * {@link #getLastSequence()} before loading it; changes already in the map are applied again harmlessly.
+ */
+public class SeatChangeFeed implements SeatHoldListener {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final SeatChange[] ring;
+    private final int mask;
+
+    /**
+     * Sequence of the latest change, guarded by this feed's monitor
+     */
+    private long lastSequence;
+
+    public SeatChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of latest changes kept for readers, rounded up to a power of two
+     */
+    public SeatChangeFeed(int capacity) {
+        checkArgument(capacity > 0 && capacity <= 1 << 30, "Please provide a valid capacity");
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.ring = new SeatChange[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * A viewer's position in the feed, to be polled by one thread at a time.
+     */
+    public class Subscription {
+
+        private long sequence;
+
+        private Subscription(long sequence) {
+            this.sequence = sequence;
+        }
+
+        /**
+         * @return the sequence of the last change this subscription returned
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Waits up to the given time for changes after the last one returned.
+         *
+         * @param maxChanges the most changes to return
+         * @return the next changes in sequence, empty if there were none in time
+         * @throws TicketServiceException if the feed dropped changes this subscription hasn't seen yet
+         */
+        public List<SeatChange> poll(int maxChanges, long timeout, TimeUnit unit) throws InterruptedException {
+            List<SeatChange> changes = awaitChangesAfter(sequence, maxChanges, unit.toMillis(timeout));
+            if (!changes.isEmpty()) {
+                sequence = changes.get(changes.size() - 1).getSequence();
+            }
+            return changes;
+        }
+    }
+
+    /**
+     * @param afterSequence the last sequence the viewer saw, 0 for the start of the feed
+     * @return a subscription returning the changes after the given one
+     */
+    public Subscription subscribe(long afterSequence) {
+        checkArgument(afterSequence >= 0, "Please provide a valid sequence");
+        return new Subscription(afterSequence);
+    }
+
+    /**
+     * @return the sequence of the latest change, 0 if there was none yet
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @param afterSequence the last sequence the viewer saw
+     * @param maxChanges    the most changes to return
+     * @return the changes after the given one, in sequence
+     * @throws TicketServiceException if the feed dropped changes after the given one already
+     */
+    public synchronized List<SeatChange> changesAfter(long afterSequence, int maxChanges) {
+
+        checkArgument(afterSequence >= 0, "Please provide a valid sequence");
+        checkArgument(maxChanges > 0, "Please provide a positive number of changes");
+        checkArgument(afterSequence <= lastSequence, "Sequence %s is ahead of the feed", afterSequence);
+        if (lastSequence - afterSequence > ring.length) {
+            throw new TicketServiceException(String.format(
+                    "Changes after %d are not kept anymore, please reload the seat map.", afterSequence));
+        }
+
+        long last = Math.min(lastSequence, afterSequence + maxChanges);
+        List<SeatChange> changes = new ArrayList<>((int) (last - afterSequence));
+        for (long sequence = afterSequence + 1; sequence <= last; sequence++) {
+            changes.add(ring[(int) sequence & mask]);
+        }
+        return changes;
+    }
+
+    private synchronized List<SeatChange> awaitChangesAfter(long afterSequence, int maxChanges, long timeoutMillis)
+            throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (long wait = timeoutMillis; lastSequence == afterSequence && wait > 0;
+             wait = deadline - System.currentTimeMillis()) {
+            wait(wait);
+        }
+        return changesAfter(afterSequence, maxChanges);
+    }
+
+    @Override
+    public void onHold(SeatHold seatHold, long expiresAt) {
+        append(SeatChange.Type.HELD, seatHold);
+    }
+
+    @Override
+    public void onReserve(SeatHold seatHold) {
+        append(SeatChange.Type.RESERVED, seatHold);
+    }
+
+    @Override
+    public void onExpire(SeatHold seatHold) {
+        append(SeatChange.Type.EXPIRED, seatHold);
+    }
+
+    private synchronized void append(SeatChange.Type type, SeatHold seatHold) {
+        long sequence = ++lastSequence;
+        ring[(int) sequence & mask] = new SeatChange(sequence, type, seatHold.getId(), seatHold.getSeats());
+        notifyAll();
+    }
+
+}
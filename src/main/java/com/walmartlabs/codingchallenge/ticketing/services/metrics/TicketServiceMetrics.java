@@ -0,0 +1,219 @@
+package com.walmartlabs.codingchallenge.ticketing.services.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and counters of a TicketService. Everything is recorded with lock free adders and histograms, so recording
+ * never waits and a scrape never stalls the service.
+ */
+public class TicketServiceMetrics {
+
+    private final LatencyHistogram findAndHoldLatency = new LatencyHistogram();
+    private final LatencyHistogram reserveLatency = new LatencyHistogram();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+
+    private final LongAdder holds = new LongAdder();
+    private final LongAdder splitHolds = new LongAdder();
+    private final LongAdder fallbackIterations = new LongAdder();
+    private final LongAdder holdFailures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder expiries = new LongAdder();
+    private final LongAdder batchRequests = new LongAdder();
+
+    /**
+     * @param nanos time a findAndHoldSeats call took, lock wait included
+     */
+    public void recordFindAndHold(long nanos) {
+        findAndHoldLatency.record(nanos);
+    }
+
+    /**
+     * @param nanos time a reserveSeats call took, lock wait included
+     */
+    public void recordReserve(long nanos) {
+        reserveLatency.record(nanos);
+    }
+
+    /**
+     * Requests of a batch count as holds, failures and rejections same as single requests do, this records the batch
+     * as a whole.
+     *
+     * @param nanos    time a batch findAndHoldSeats call took, lock wait included
+     * @param requests number of requests in the batch
+     */
+    public void recordBatch(long nanos, int requests) {
+        batchLatency.record(nanos);
+        batchRequests.add(requests);
+    }
+
+    /**
+     * @param nanos time spent waiting for the service lock
+     */
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos);
+    }
+
+    /**
+     * A group got seated.
+     *
+     * @param split true if it didn't fit in one block and got split
+     */
+    public void recordHold(boolean split) {
+        holds.increment();
+        if (split) {
+            splitHolds.increment();
+        }
+    }
+
+    /**
+     * @param iterations blocks the split group fallback seated one request in
+     */
+    public void recordFallbackIterations(int iterations) {
+        fallbackIterations.add(iterations);
+    }
+
+    /**
+     * Not even split up could the group be seated.
+     */
+    public void recordHoldFailure() {
+        holdFailures.increment();
+    }
+
+    /**
+     * A hold was turned down because the venue doesn't have that many seats left.
+     */
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    public void recordReservation() {
+        reservations.increment();
+    }
+
+    public void recordExpiry() {
+        expiries.increment();
+    }
+
+    /**
+     * @return everything recorded so far
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(findAndHoldLatency.snapshot(), reserveLatency.snapshot(), lockWait.snapshot(),
+                batchLatency.snapshot(), holds.sum(), splitHolds.sum(), fallbackIterations.sum(), holdFailures.sum(),
+                rejections.sum(), reservations.sum(), expiries.sum(), batchRequests.sum());
+    }
+
+    /**
+     * @return everything recorded since the last reset, after which recording starts over
+     */
+    public Snapshot snapshotAndReset() {
+        return new Snapshot(findAndHoldLatency.snapshotAndReset(), reserveLatency.snapshotAndReset(),
+                lockWait.snapshotAndReset(), batchLatency.snapshotAndReset(), holds.sumThenReset(),
+                splitHolds.sumThenReset(), fallbackIterations.sumThenReset(), holdFailures.sumThenReset(),
+                rejections.sumThenReset(), reservations.sumThenReset(), expiries.sumThenReset(),
+                batchRequests.sumThenReset());
+    }
+
+    /**
+     * The metrics of a service at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final LatencyHistogram.Snapshot findAndHoldLatency;
+        private final LatencyHistogram.Snapshot reserveLatency;
+        private final LatencyHistogram.Snapshot lockWait;
+        private final LatencyHistogram.Snapshot batchLatency;
+        private final long holds;
+        private final long splitHolds;
+        private final long fallbackIterations;
+        private final long holdFailures;
+        private final long rejections;
+        private final long reservations;
+        private final long expiries;
+        private final long batchRequests;
+
+        private Snapshot(LatencyHistogram.Snapshot findAndHoldLatency, LatencyHistogram.Snapshot reserveLatency,
+                         LatencyHistogram.Snapshot lockWait, LatencyHistogram.Snapshot batchLatency, long holds,
+                         long splitHolds, long fallbackIterations, long holdFailures, long rejections,
+                         long reservations, long expiries, long batchRequests) {
+            this.findAndHoldLatency = findAndHoldLatency;
+            this.reserveLatency = reserveLatency;
+            this.lockWait = lockWait;
+            this.batchLatency = batchLatency;
+            this.holds = holds;
+            this.splitHolds = splitHolds;
+            this.fallbackIterations = fallbackIterations;
+            this.holdFailures = holdFailures;
+            this.rejections = rejections;
+            this.reservations = reservations;
+            this.expiries = expiries;
+            this.batchRequests = batchRequests;
+        }
+
+        public LatencyHistogram.Snapshot getFindAndHoldLatency() {
+            return findAndHoldLatency;
+        }
+
+        public LatencyHistogram.Snapshot getReserveLatency() {
+            return reserveLatency;
+        }
+
+        public LatencyHistogram.Snapshot getLockWait() {
+            return lockWait;
+        }
+
+        /**
+         * @return latency of batch calls, its count being the number of batches
+         */
+        public LatencyHistogram.Snapshot getBatchLatency() {
+            return batchLatency;
+        }
+
+        public long getHolds() {
+            return holds;
+        }
+
+        public long getSplitHolds() {
+            return splitHolds;
+        }
+
+        public long getFallbackIterations() {
+            return fallbackIterations;
+        }
+
+        public long getHoldFailures() {
+            return holdFailures;
+        }
+
+        public long getRejections() {
+            return rejections;
+        }
+
+        public long getReservations() {
+            return reservations;
+        }
+
+        public long getExpiries() {
+            return expiries;
+        }
+
+        /**
+         * @return requests over all batches
+         */
+        public long getBatchRequests() {
+            return batchRequests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("findAndHold: %s\nreserve: %s\nlockWait: %s\nbatch: %s\n", findAndHoldLatency,
+                    reserveLatency, lockWait, batchLatency)
+                    + String.format("holds=%d splitHolds=%d fallbackIterations=%d holdFailures=%d rejections=%d "
+                    + "reservations=%d expiries=%d batchRequests=%d", holds, splitHolds, fallbackIterations,
+                    holdFailures, rejections, reservations, expiries, batchRequests);
+        }
+    }
+
+}
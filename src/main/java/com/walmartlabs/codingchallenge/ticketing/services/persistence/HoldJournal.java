@@ -0,0 +1,454 @@
+package com.walmartlabs.codingchallenge.ticketing.services.persistence;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * An append-only binary journal of seat hold events (hold, reserve, expire), used to rebuild a service after a
+ * restart.
+ *
+ * Appends copy the record into an in-memory buffer and return a future of its write. A background thread writes the
+ * buffer to the file and forces it to disk every commit interval, so all the events of that interval share one fsync
+ * (group commit), and then completes their futures. The services append an event before they apply it and only
+ * apply a hold or reservation, and hand out its id or confirmation code, once the future completes, so whatever a
+ * customer was told survives a crash. Only events nobody got an answer for yet can be lost. A commit that fails
+ * leaves its futures pending and the next commit writes the records again, up to {@link #COMMIT_ATTEMPTS} times in a
+ * row. Then the records are dropped and their futures fail, so callers learn that their change didn't make it
+ * instead of waiting forever.
+ *
+ * Every record is framed as [payload length][CRC32 of payload][payload], with the payload being
+ * [type][seat hold id][time] and, for holds, [email length][email][seat count][seats]. Replay stops at the first
+ * record that is cut short or doesn't match its checksum, which is where a crash left the file.
+ */
+public class HoldJournal implements Closeable {
+
+    private static final byte HOLD = 1;
+    private static final byte RESERVE = 2;
+    private static final byte EXPIRE = 3;
+
+    private static final int FRAME_HEADER = Integer.BYTES * 2;
+    private static final int EVENT_HEADER = Byte.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * How often the records of a commit are written before they are given up on
+     */
+    static final int COMMIT_ATTEMPTS = 3;
+
+    /**
+     * Replay maps the file in windows of this size
+     */
+    private static final int REPLAY_WINDOW = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ScheduledExecutorService committer;
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Records appended since the last commit, guarded by this journal's monitor
+     */
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /**
+     * Completed once the pending records are on disk, guarded by this journal's monitor
+     */
+    private CompletableFuture<Void> pendingWrite = new CompletableFuture<>();
+
+    /**
+     * File position the next commit writes to, guarded by this journal's monitor
+     */
+    private long writePosition;
+
+    /**
+     * Commits that failed in a row, guarded by the channel's monitor
+     */
+    private int failedCommits;
+
+    private boolean closed;
+
+    /**
+     * Opens (or creates) the journal at the given path.
+     *
+     * @param path                 the journal file
+     * @param commitIntervalMillis how often appended records are written and forced to disk
+     */
+    public HoldJournal(Path path, long commitIntervalMillis) throws IOException {
+
+        checkArgument(commitIntervalMillis > 0, "Commit interval must be positive");
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.writePosition = channel.size();
+        this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hold-journal-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, commitIntervalMillis, commitIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends a new hold.
+     *
+     * @param seatHold  the new seat hold
+     * @param expiresAt epoch millis at which the hold expires
+     * @return completed once the record is on disk
+     */
+    public CompletableFuture<Void> appendHold(SeatHold seatHold, long expiresAt) {
+
+        byte[] email = seatHold.getCustomerEmail().getBytes(StandardCharsets.UTF_8);
+        int[] seats = seatHold.getSeats();
+
+        synchronized (this) {
+            ByteBuffer buffer = beginRecord(EVENT_HEADER + Integer.BYTES + email.length + Integer.BYTES
+                    + seats.length * Integer.BYTES);
+            buffer.put(HOLD).putInt(seatHold.getId()).putLong(expiresAt);
+            buffer.putInt(email.length).put(email);
+            buffer.putInt(seats.length);
+            for (int seat : seats) {
+                buffer.putInt(seat);
+            }
+            endRecord();
+            return pendingWrite;
+        }
+    }
+
+    /**
+     * Appends the reservation of a hold.
+     *
+     * @return completed once the record is on disk
+     */
+    public CompletableFuture<Void> appendReserve(SeatHold seatHold) {
+        return appendEvent(RESERVE, seatHold.getId());
+    }
+
+    /**
+     * Appends the expiration of a hold.
+     *
+     * @return completed once the record is on disk
+     */
+    public CompletableFuture<Void> appendExpire(SeatHold seatHold) {
+        return appendEvent(EXPIRE, seatHold.getId());
+    }
+
+    private synchronized CompletableFuture<Void> appendEvent(byte type, int seatHoldId) {
+        ByteBuffer buffer = beginRecord(EVENT_HEADER);
+        buffer.put(type).putInt(seatHoldId).putLong(System.currentTimeMillis());
+        endRecord();
+        return pendingWrite;
+    }
+
+    /**
+     * Makes room for a record and leaves space for its frame header, which {@link #endRecord()} fills in.
+     */
+    private ByteBuffer beginRecord(int payloadSize) {
+
+        checkState(!closed, "Journal is closed");
+        if (pending.remaining() < FRAME_HEADER + payloadSize) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2,
+                    pending.position() + FRAME_HEADER + payloadSize));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        pending.mark();
+        pending.position(pending.position() + FRAME_HEADER);
+        return pending;
+    }
+
+    private void endRecord() {
+
+        int end = pending.position();
+        pending.reset();
+        int start = pending.position();
+        int payloadLength = end - start - FRAME_HEADER;
+
+        crc.reset();
+        crc.update(pending.array(), start + FRAME_HEADER, payloadLength);
+        pending.putInt(payloadLength).putInt((int) crc.getValue());
+        pending.position(end);
+    }
+
+    /**
+     * Writes every appended record to the file and forces it to disk without waiting for the next commit.
+     */
+    public void sync() throws IOException {
+        commit();
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException ex) {
+            // Keep the records, the next commit tries again
+        }
+    }
+
+    private void commit() throws IOException {
+
+        CompletableFuture<Void> written;
+        IOException failure = null;
+        // The channel lock keeps commits, resets and replays in order, appenders only ever wait for the swap below
+        synchronized (channel) {
+            ByteBuffer records;
+            long start;
+            synchronized (this) {
+                if (pending.position() == 0) {
+                    return;
+                }
+                records = pending;
+                written = pendingWrite;
+                start = writePosition;
+                pending = ByteBuffer.allocate(records.capacity());
+                pendingWrite = new CompletableFuture<>();
+                writePosition += records.position();
+                records.flip();
+            }
+
+            try {
+                long position = start;
+                while (records.hasRemaining()) {
+                    position += channel.write(records, position);
+                }
+                channel.force(false);
+            } catch (IOException ex) {
+                if (++failedCommits < COMMIT_ATTEMPTS) {
+                    // Put the records back in front of whatever got appended meanwhile, the next commit rewrites them
+                    synchronized (this) {
+                        records.rewind();
+                        pending.flip();
+                        ByteBuffer merged = ByteBuffer.allocate(records.capacity() + pending.capacity());
+                        merged.put(records).put(pending);
+                        pending = merged;
+                        writePosition = start;
+                        pendingWrite = merge(written, pendingWrite);
+                    }
+                    throw ex;
+                }
+                giveUp(start, ex);
+                failure = ex;
+            }
+            failedCommits = 0;
+        }
+        // Completed outside the channel lock, whatever runs on completion doesn't hold up resets or other commits
+        if (failure != null) {
+            written.completeExceptionally(failure);
+            throw failure;
+        }
+        written.complete(null);
+    }
+
+    /**
+     * Drops records that failed to commit too often, their futures fail. Whatever part of them made it to the file is
+     * cut off as well, so a replay can't bring back changes the callers were told failed.
+     */
+    private void giveUp(long start, IOException cause) {
+
+        synchronized (this) {
+            writePosition = start;
+        }
+        try {
+            channel.truncate(start);
+        } catch (IOException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    /**
+     * @return the future of the earlier write, which now also completes the later one
+     */
+    private static CompletableFuture<Void> merge(CompletableFuture<Void> earlier, CompletableFuture<Void> later) {
+        earlier.whenComplete((ignored, error) -> {
+            if (error == null) {
+                later.complete(null);
+            } else {
+                later.completeExceptionally(error);
+            }
+        });
+        return earlier;
+    }
+
+    /**
+     * Drops every record, committed or not. Call this once a snapshot covers all the events in the journal and no new
+     * event can be appended meanwhile. Records that weren't committed yet count as written, the snapshot has them.
+     */
+    public void reset() throws IOException {
+        CompletableFuture<Void> written;
+        synchronized (channel) {
+            synchronized (this) {
+                pending.clear();
+                writePosition = 0;
+                written = pendingWrite;
+                pendingWrite = new CompletableFuture<>();
+            }
+            channel.truncate(0);
+            channel.force(true);
+        }
+        written.complete(null);
+    }
+
+    /**
+     * Replays every intact record of the journal, oldest first, and cuts off a torn tail so new records follow the
+     * last intact one. Call this before appending anything.
+     *
+     * @param handler receives the recorded events
+     * @return the number of records replayed
+     */
+    public long replay(ReplayHandler handler) throws IOException {
+
+        long records = 0;
+        long position = 0;
+        long size = channel.size();
+
+        while (position < size) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(REPLAY_WINDOW, size - position));
+            int consumed = 0;
+            int length;
+            while ((length = recordLength(window)) >= 0) {
+                replayRecord(window, length, handler);
+                records++;
+                consumed = window.position();
+            }
+            if (consumed == 0) {
+                // The record at this position is torn or too big for a window we could still map
+                break;
+            }
+            position += consumed;
+        }
+
+        synchronized (channel) {
+            synchronized (this) {
+                checkState(pending.position() == 0, "Replay has to happen before appending to the journal");
+                writePosition = position;
+            }
+            if (position < size) {
+                channel.truncate(position);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @return the payload length of the intact record at the buffer's position, -1 if there is none
+     */
+    private int recordLength(ByteBuffer buffer) {
+
+        if (buffer.remaining() < FRAME_HEADER) {
+            return -1;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + Integer.BYTES);
+        if (length < EVENT_HEADER || length > buffer.remaining() - FRAME_HEADER) {
+            return -1;
+        }
+
+        crc.reset();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + FRAME_HEADER).limit(start + FRAME_HEADER + length);
+        crc.update(payload);
+        return (int) crc.getValue() == checksum ? length : -1;
+    }
+
+    private void replayRecord(ByteBuffer buffer, int length, ReplayHandler handler) {
+
+        int end = buffer.position() + FRAME_HEADER + length;
+        buffer.position(buffer.position() + FRAME_HEADER);
+
+        byte type = buffer.get();
+        int seatHoldId = buffer.getInt();
+        long time = buffer.getLong();
+        switch (type) {
+            case HOLD:
+                byte[] email = new byte[buffer.getInt()];
+                buffer.get(email);
+                int[] seats = new int[buffer.getInt()];
+                for (int i = 0; i < seats.length; i++) {
+                    seats[i] = buffer.getInt();
+                }
+                handler.onHold(new SeatHold(seatHoldId, seats.length, seats, new String(email, StandardCharsets.UTF_8)),
+                        time);
+                break;
+            case RESERVE:
+                handler.onReserve(seatHoldId);
+                break;
+            case EXPIRE:
+                handler.onExpire(seatHoldId);
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unknown journal record type %d", type));
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Commits what is left and closes the journal. If that last commit fails, the futures still waiting for it fail
+     * with the error.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        committer.shutdown();
+        try {
+            committer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            commit();
+        } catch (IOException ex) {
+            synchronized (this) {
+                pendingWrite.completeExceptionally(ex);
+            }
+            throw ex;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Receives the events of a journal as it is replayed.
+     */
+    public interface ReplayHandler {
+
+        /**
+         * @param seatHold  the seat hold as it was created
+         * @param expiresAt epoch millis at which the hold expires
+         */
+        void onHold(SeatHold seatHold, long expiresAt);
+
+        /**
+         * @param seatHoldId the seat hold that got reserved
+         */
+        void onReserve(int seatHoldId);
+
+        /**
+         * @param seatHoldId the seat hold that expired
+         */
+        void onExpire(int seatHoldId);
+    }
+
+}
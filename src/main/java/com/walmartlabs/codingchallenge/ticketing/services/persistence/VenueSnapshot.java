@@ -0,0 +1,160 @@
+package com.walmartlabs.codingchallenge.ticketing.services.persistence;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A point in time image of a venue and the seat holds on it, saved in a compact binary file.
+ *
+ * The file is [magic][version][last seat hold id][venue][seat hold count][seat holds][CRC32 of everything before],
+ * with the venue as written by {@link Venue#writeTo(ByteBuffer)} and every seat hold as [id][email length][email]
+ * [seat count][seats]. Hold expirations are part of the venue's seat state. Loading maps the file and copies the seat
+ * arrays in bulk, so no seat rating is computed and no object per seat is created.
+ *
+ * Once a snapshot is written, the events journaled before it are not needed anymore (see
+ * {@link HoldJournal#reset()}).
+ */
+public final class VenueSnapshot {
+
+    private static final int MAGIC = 0x54535650;
+    private static final int VERSION = 3;
+
+    private final Venue venue;
+    private final int lastSeatHoldId;
+    private final List<SeatHold> seatHolds;
+
+    /**
+     * @param venue          the venue with its seat state
+     * @param lastSeatHoldId the last seat hold id handed out, new ids continue after it
+     * @param seatHolds      the active seat holds on the venue
+     */
+    public VenueSnapshot(Venue venue, int lastSeatHoldId, Collection<SeatHold> seatHolds) {
+
+        checkArgument(venue != null, "Please provide a venue");
+        this.venue = venue;
+        this.lastSeatHoldId = lastSeatHoldId;
+        this.seatHolds = Collections.unmodifiableList(new ArrayList<>(seatHolds));
+    }
+
+    public Venue getVenue() {
+        return venue;
+    }
+
+    public int getLastSeatHoldId() {
+        return lastSeatHoldId;
+    }
+
+    public List<SeatHold> getSeatHolds() {
+        return seatHolds;
+    }
+
+    /**
+     * Writes the snapshot next to the given file and moves it in place, so a crash leaves either the old or the new
+     * snapshot behind.
+     *
+     * @param file the snapshot file
+     */
+    public void write(Path file) throws IOException {
+
+        List<byte[]> emails = new ArrayList<>(seatHolds.size());
+        int size = Integer.BYTES * 3 + venue.snapshotSize() + Integer.BYTES + Long.BYTES;
+        for (SeatHold seatHold : seatHolds) {
+            byte[] email = seatHold.getCustomerEmail().getBytes(StandardCharsets.UTF_8);
+            emails.add(email);
+            size += Integer.BYTES * 2 + email.length + Integer.BYTES
+                    + seatHold.getSeats().length * Integer.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(lastSeatHoldId);
+        venue.writeTo(buffer);
+        buffer.putInt(seatHolds.size());
+        for (int i = 0; i < seatHolds.size(); i++) {
+            SeatHold seatHold = seatHolds.get(i);
+            buffer.putInt(seatHold.getId());
+            buffer.putInt(emails.get(i).length).put(emails.get(i));
+            buffer.putInt(seatHold.getSeats().length);
+            for (int seat : seatHold.getSeats()) {
+                buffer.putInt(seat);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot written by {@link #write(Path)}.
+     *
+     * @param file the snapshot file
+     * @return the snapshot, with a venue that is ready to take holds
+     * @throws IOException if the file can't be read or isn't an intact snapshot
+     */
+    public static VenueSnapshot read(Path file) throws IOException {
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < Integer.BYTES * 4 + Long.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(String.format("%s is not a venue snapshot", file));
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException(String.format("Snapshot version %d is not supported", buffer.getInt(Integer.BYTES)));
+        }
+        int checksummed = buffer.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.limit(checksummed);
+        crc.update(content);
+        if (crc.getValue() != buffer.getLong(checksummed)) {
+            throw new IOException(String.format("Snapshot %s is damaged", file));
+        }
+
+        buffer.position(Integer.BYTES * 2);
+        int lastSeatHoldId = buffer.getInt();
+        Venue venue = Venue.readFrom(buffer);
+        int count = buffer.getInt();
+        List<SeatHold> seatHolds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = buffer.getInt();
+            byte[] email = new byte[buffer.getInt()];
+            buffer.get(email);
+            int[] seats = new int[buffer.getInt()];
+            buffer.asIntBuffer().get(seats);
+            buffer.position(buffer.position() + seats.length * Integer.BYTES);
+            seatHolds.add(new SeatHold(id, seats.length, seats, new String(email, StandardCharsets.UTF_8)));
+        }
+        return new VenueSnapshot(venue, lastSeatHoldId, seatHolds);
+    }
+
+}
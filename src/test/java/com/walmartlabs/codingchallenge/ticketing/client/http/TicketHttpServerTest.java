@@ -0,0 +1,116 @@
+package com.walmartlabs.codingchallenge.ticketing.client.http;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.AsyncTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.EventLoopTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TicketHttpServerTest {
+
+    private EventLoopTicketService ticketService;
+    private TicketHttpServer server;
+
+    @BeforeEach
+    void setup() throws IOException {
+        ticketService = new EventLoopTicketService(new SimpleTicketService(new Venue(1, 3, 3), 60));
+        server = new TicketHttpServer(ticketService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void cleanup() {
+        server.close();
+        ticketService.close();
+    }
+
+    @Test
+    void holdReserveAndAvailabilityRoutes() throws IOException {
+
+        assertEquals("200 {\"available\":9}", call("GET", "/seats/available"));
+        assertEquals("200 {\"seatHoldId\":1,\"numSeats\":3,\"seats\":[1,2,3]}",
+                call("POST", "/holds?numSeats=3&email=a%40b.com"));
+        assertEquals("200 {\"confirmationCode\":\"R1\"}", call("POST", "/holds/1/reserve?email=a@b.com"));
+        assertEquals("200 {\"available\":6}", call("GET", "/seats/available"));
+    }
+
+    @Test
+    void errorsMapToStatusCodes() throws IOException {
+
+        assertAll("errors",
+                () -> assertEquals("400 {\"error\":\"Please provide the email parameter.\"}",
+                        call("POST", "/holds?numSeats=1")),
+                () -> assertEquals("400 {\"error\":\"Please provide a valid number of seats you want to hold.\"}",
+                        call("POST", "/holds?numSeats=0&email=a@b.com")),
+                () -> assertEquals("409 {\"error\":\"SeatHold with id: 7 is either invalid or expired or reserved already.\"}",
+                        call("POST", "/holds/7/reserve?email=a@b.com")),
+                () -> assertEquals("404 {\"error\":\"No such route: /holds/7\"}", call("POST", "/holds/7")),
+                () -> assertEquals("405 {\"error\":\"Use GET to read the available seats.\"}",
+                        call("POST", "/seats/available"))
+        );
+    }
+
+    @Test
+    void responsesThatCantBeWrittenAreServerErrors() throws IOException {
+
+        // A hold without seats makes the JSON writer fail
+        AsyncTicketService broken = new AsyncTicketService() {
+            @Override
+            public CompletableFuture<Integer> numSeatsAvailable() {
+                return CompletableFuture.completedFuture(0);
+            }
+
+            @Override
+            public CompletableFuture<SeatHold> findAndHoldSeats(int numSeats, String customerEmail) {
+                return CompletableFuture.completedFuture(new SeatHold(1, numSeats, null, customerEmail));
+            }
+
+            @Override
+            public CompletableFuture<String> reserveSeats(int seatHoldId, String customerEmail) {
+                return CompletableFuture.completedFuture("R" + seatHoldId);
+            }
+        };
+        TicketHttpServer brokenServer = new TicketHttpServer(broken,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        try {
+            assertEquals("500 {\"error\":\"Internal error\"}",
+                    call(brokenServer, "POST", "/holds?numSeats=2&email=a@b.com"));
+        } finally {
+            brokenServer.close();
+        }
+    }
+
+    private String call(String method, String path) throws IOException {
+        return call(server, method, path);
+    }
+
+    private String call(TicketHttpServer server, String method, String path) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://"
+                + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        // A server that never answers fails the test instead of hanging it
+        connection.setReadTimeout(5000);
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return status + " " + scanner.useDelimiter("\\A").next();
+        }
+    }
+
+}
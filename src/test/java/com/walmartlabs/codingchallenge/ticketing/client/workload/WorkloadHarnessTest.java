@@ -0,0 +1,73 @@
+package com.walmartlabs.codingchallenge.ticketing.client.workload;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.TicketService;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkloadHarnessTest {
+
+    @Test
+    void meetsLatencyObjectivesAndAccountsForEveryCustomer() throws InterruptedException {
+
+        Workload workload = new Workload(2000, 1, new int[]{4, 3, 2, 1}, 0.5, 42);
+        WorkloadReport report = new WorkloadHarness(workload, 4)
+                .run(new SimpleTicketService(new Venue(1, 50, 100), 60));
+
+        assertAll("report",
+                () -> assertEquals(2000, report.getHolds() + report.getRejected()),
+                () -> assertEquals(report.getHolds(), report.getReservations() + report.getAbandoned()),
+                () -> assertEquals(0, report.getErrors()),
+                () -> assertTrue(report.getThroughput() > 0),
+                () -> assertEquals(0, report.sloViolations(99.9, 1000, 1000).size(), report.toString())
+        );
+    }
+
+    @Test
+    void stallShowsUpInEveryRequestScheduledDuringIt() throws InterruptedException {
+
+        TicketService delegate = new SimpleTicketService(new Venue(1, 50, 100), 60);
+        AtomicBoolean stalled = new AtomicBoolean();
+        TicketService stalling = new TicketService() {
+            @Override
+            public int numSeatsAvailable() {
+                return delegate.numSeatsAvailable();
+            }
+
+            @Override
+            public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+                if (stalled.compareAndSet(false, true)) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(300);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return delegate.findAndHoldSeats(numSeats, customerEmail);
+            }
+
+            @Override
+            public String reserveSeats(int seatHoldId, String customerEmail) {
+                return delegate.reserveSeats(seatHoldId, customerEmail);
+            }
+        };
+
+        // One worker: a closed loop would record a single slow call, here the ~300 customers arriving during the
+        // stall all wait for it
+        WorkloadReport report = new WorkloadHarness(new Workload(1000, 1, new int[]{1}, 0, 7), 1).run(stalling);
+
+        assertTrue(report.getHoldLatency().getValueAtPercentile(90) > TimeUnit.MILLISECONDS.toNanos(50),
+                report.toString());
+        assertFalse(report.sloViolations(99, 50, 50).isEmpty());
+    }
+
+}
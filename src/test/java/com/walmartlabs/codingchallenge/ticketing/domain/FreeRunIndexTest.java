@@ -0,0 +1,161 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class FreeRunIndexTest {
+
+    private static final int ROWS = 4;
+    private static final int SEATS_PER_ROW = 10;
+
+    private FreeRunIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new FreeRunIndex(ROWS, SEATS_PER_ROW);
+    }
+
+    @Test
+    void allSeatsStartOutFree() {
+        assertAll("empty venue",
+                () -> assertEquals(SEATS_PER_ROW, index.longestRun(), "Whole row should be one free run"),
+                () -> assertEquals(0, index.firstRowFitting(SEATS_PER_ROW), "Front row should fit a full row"),
+                () -> assertEquals(-1, index.firstRowFitting(SEATS_PER_ROW + 1), "No row is wider than the venue")
+        );
+    }
+
+    @Test
+    void occupyingSeatsSplitsRuns() {
+        index.occupy(0, 4);
+        index.occupy(1, 0);
+
+        assertAll("split runs",
+                () -> assertFalse(index.isFree(0, 4), "Occupied seat should not be free"),
+                () -> assertEquals(5, index.longestRun(0), "Front row should be split into 4 and 5"),
+                () -> assertEquals(9, index.longestRun(1), "Second row should lose its first seat"),
+                () -> assertEquals(1, index.firstRowFitting(6), "Six seats only fit from the second row on"),
+                () -> assertEquals(5, index.firstStartAtOrAfter(0, 2, 3), "First block of 3 from column 2"),
+                () -> assertEquals(1, index.lastStartAtOrBefore(0, 3, 3), "Last block of 3 up to column 3")
+        );
+
+        index.free(0, 4);
+        assertEquals(SEATS_PER_ROW, index.longestRun(0), "Freeing the seat should join the runs again");
+    }
+
+    @Test
+    void matchesBruteForceOnRandomStates() {
+        Random random = new Random(42);
+        boolean[][] free = new boolean[ROWS][SEATS_PER_ROW];
+        for (boolean[] row : free) {
+            Arrays.fill(row, true);
+        }
+
+        for (int step = 0; step < 2000; step++) {
+            int row = random.nextInt(ROWS);
+            int col = random.nextInt(SEATS_PER_ROW);
+            free[row][col] = !free[row][col];
+            if (free[row][col]) {
+                index.free(row, col);
+            } else {
+                index.occupy(row, col);
+            }
+
+            int numSeats = 1 + random.nextInt(SEATS_PER_ROW);
+            int at = random.nextInt(SEATS_PER_ROW);
+            assertEquals(bruteFirstRow(free, numSeats), index.firstRowFitting(numSeats), "first row");
+            assertEquals(bruteFirstStart(free[row], at, numSeats), index.firstStartAtOrAfter(row, at, numSeats),
+                    "first start");
+            assertEquals(bruteLastStart(free[row], at, numSeats), index.lastStartAtOrBefore(row, at, numSeats),
+                    "last start");
+        }
+    }
+
+    @Test
+    void rowTreeStaysExactWhenRowsChangeInParallel() throws InterruptedException {
+        int threads = 8;
+        int rows = 64;
+        FreeRunIndex shared = new FreeRunIndex(rows, SEATS_PER_ROW);
+        boolean[][] free = new boolean[rows][SEATS_PER_ROW];
+        for (boolean[] row : free) {
+            Arrays.fill(row, true);
+        }
+
+        // Every thread owns every threads-th row, same as a row lock would make it
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                Random random = new Random(first);
+                for (int step = 0; step < 20000; step++) {
+                    int row = first + threads * random.nextInt(rows / threads);
+                    int col = random.nextInt(SEATS_PER_ROW);
+                    free[row][col] = !free[row][col];
+                    if (free[row][col]) {
+                        shared.free(row, col);
+                    } else {
+                        shared.occupy(row, col);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int numSeats = 1; numSeats <= SEATS_PER_ROW; numSeats++) {
+            assertEquals(bruteFirstRow(free, numSeats), shared.firstRowFitting(numSeats), "first row of " + numSeats);
+        }
+        int longest = 0;
+        for (int row = 0; row < rows; row++) {
+            longest = Math.max(longest, shared.longestRun(row));
+        }
+        assertEquals(longest, shared.longestRun(), "Root should be the longest run of all rows");
+    }
+
+    private static boolean fits(boolean[] row, int start, int numSeats) {
+        if (start < 0 || start + numSeats > row.length) {
+            return false;
+        }
+        for (int col = start; col < start + numSeats; col++) {
+            if (!row[col]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bruteFirstRow(boolean[][] free, int numSeats) {
+        for (int row = 0; row < free.length; row++) {
+            if (bruteFirstStart(free[row], 0, numSeats) >= 0) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static int bruteFirstStart(boolean[] row, int from, int numSeats) {
+        for (int start = from; start < row.length; start++) {
+            if (fits(row, start, numSeats)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private static int bruteLastStart(boolean[] row, int to, int numSeats) {
+        for (int start = to; start >= 0; start--) {
+            if (fits(row, start, numSeats)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+}
@@ -7,14 +7,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class SeatHoldTest {
 
-    private static final  Seat[] SEATS_TO_HOLD = new Seat[]
-
-    {
-        new Seat(1, 1, 1, 1),
-                new Seat(2, 1, 2, 2),
-                new Seat(3, 1, 3, 3)
-    };
-
     private Venue venue;
 
     @BeforeEach
@@ -0,0 +1,78 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SeatStoreTest {
+
+    private SeatStore store;
+
+    @BeforeEach
+    void setup() {
+        this.store = new SeatStore(new float[]{1, 2, 3});
+    }
+
+    @Test
+    void getRating() {
+        assertEquals(2, store.getRating(2), "Expect rating to be looked up by seat id");
+    }
+
+    @Test
+    void isAvailable() {
+        assertEquals(true, store.isAvailable(1), "Seat should start out as available");
+    }
+
+    @Test
+    void reserve() {
+
+        store.setReserved(1, true);
+        assertAll("check conditions",
+                () -> assertEquals(false, store.isAvailable(1), "Reserving a seat should also make it unavailable"),
+                () -> assertEquals(true, store.isReserved(1), "Reserving a seat should mark it reserved"),
+                () -> assertEquals(true, store.isAvailable(2), "Other seats should not be affected")
+        );
+    }
+
+    @Test
+    void reserveAlreadyReservedSeat() {
+        store.setReserved(1, true);
+        ExceptionHelper.testException(
+                IllegalStateException.class,
+                () -> store.setReserved(1, true),
+                "Seat is already reserved"
+        );
+    }
+
+    @Test
+    void holdUnavailableSeat() {
+        store.setHold(1, true);
+        ExceptionHelper.testException(
+                IllegalStateException.class,
+                () -> store.setHold(1, true),
+                "Cannot hold an unavailable seat"
+        );
+    }
+
+    @Test
+    void cancelHold() {
+        store.setHold(1, true);
+        assertAll("ensure hold",
+                () -> assertEquals(false, store.isAvailable(1), "Make sure seat got held"),
+                () -> assertEquals(false, store.isReserved(1), "Seat should not be reserved")
+        );
+        store.setHold(1, false);
+        assertEquals(true, store.isAvailable(1), "Releasing an unreserved seat should work");
+    }
+
+    @Test
+    void holdStaysUntilReleased() {
+        store.setHold(1, true);
+        store.setExpires(1, 1000L);
+        assertEquals(false, store.isAvailable(1), "Expired holds should only be released by the expiration wheel");
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VenueLayoutTest {
+
+    /**
+     * Two rows of 6 in front, then a row of two blocks of 3 around an aisle and a short back row
+     */
+    private static final String LAYOUT = "# test arena\n"
+            + "section Floor\n"
+            + "2x 6\n"
+            + "\n"
+            + "section Balcony\n"
+            + "-2 3 -1 3\n"
+            + "4\n";
+
+    private VenueLayout layout;
+    private Venue venue;
+
+    @BeforeEach
+    void setup() throws IOException {
+        layout = VenueLayout.read(new StringReader(LAYOUT));
+        venue = new Venue(1, layout);
+    }
+
+    @Test
+    void layoutIsReadIntoSectionsOfRows() {
+        assertAll("layout",
+                () -> assertEquals(4, layout.getRows()),
+                () -> assertEquals(9, layout.getWidth(), "Longest row with its gaps"),
+                () -> assertEquals(22, layout.getSeatCount()),
+                () -> assertEquals("Balcony", layout.getSections().get(1).getName()),
+                () -> assertEquals(2, layout.getSections().get(1).getFirstRow()),
+                () -> assertEquals(22, venue.getTotalSeats()),
+                () -> assertEquals(22, venue.getAvailableSeatCount()),
+                () -> assertEquals(12, venue.getAvailableSeatCount(0)),
+                () -> assertEquals(10, venue.getAvailableSeatCount(1)),
+                () -> assertEquals("  AAA AAA", venue.getSeatMap().toString().split("\n")[2],
+                        "First balcony row should show its leading gap and the aisle as blanks")
+        );
+
+        // First balcony row: places 19-27, the first two and the one after the first block are no seats
+        AvailabilitySnapshot snapshot = venue.getAvailabilitySnapshot();
+        for (int seatId = 19; seatId <= 27; seatId++) {
+            byte expected = seatId <= 20 || seatId == 24 ? AvailabilitySnapshot.NO_SEAT : AvailabilitySnapshot.FREE;
+            assertEquals(expected, snapshot.getState(seatId), "State of place " + seatId);
+        }
+    }
+
+    @Test
+    void malformedLayoutsNameTheLine() {
+        ExceptionHelper.testException(IllegalArgumentException.class,
+                () -> VenueLayout.read(new StringReader("4\n")), "Line 1: rows have to follow a section line");
+        ExceptionHelper.testException(IllegalArgumentException.class,
+                () -> VenueLayout.read(new StringReader("section A\n3 -2\n-4\n")), "Line 3: the row has no seats");
+        ExceptionHelper.testException(IllegalArgumentException.class,
+                () -> VenueLayout.read(new StringReader("section A\n3 two\n")), "Line 2: two is not a number");
+    }
+
+    @Test
+    void searchesStayInTheSectionAndCenterOnTheSeatsOfTheRow() {
+        assertArrayEquals(new int[]{3, 4}, venue.findSequentSeats(2, null), "Center of the front row");
+        assertArrayEquals(new int[]{21, 22, 23}, venue.findSequentSeatsInSection(1, 3),
+                "Best block next to the aisle of the first balcony row");
+        assertArrayEquals(new int[]{28, 29, 30, 31}, venue.findSequentSeatsInSection(1, 4),
+                "Aisle row can't fit 4, the back row can");
+        assertEquals(0, venue.findSequentSeatsInSection(0, 7).length);
+
+        venue.holdSeats(new int[]{1, 2, 3, 4, 5, 6}, 60);
+        assertEquals(0, venue.findAdjacentRowSeats(6, 2).length, "Blocks shouldn't reach over two sections");
+
+        venue.holdSeats(new int[]{21, 22, 23}, 60);
+        assertAll("section counts",
+                () -> assertEquals(6, venue.getAvailableSeatCount(0)),
+                () -> assertEquals(7, venue.getAvailableSeatCount(1), "Holds should count against their section")
+        );
+    }
+
+    @Test
+    void writtenVenueKeepsSectionsAndGaps() {
+        venue.holdSeats(new int[]{21}, 60);
+        ByteBuffer buffer = ByteBuffer.allocate(venue.snapshotSize());
+        venue.writeTo(buffer);
+        buffer.flip();
+        Venue restored = Venue.readFrom(buffer);
+
+        assertAll("restored venue",
+                () -> assertEquals(0, buffer.remaining()),
+                () -> assertEquals(layout.getSections().toString(), restored.getSections().toString()),
+                () -> assertEquals(21, restored.getAvailableSeatCount()),
+                () -> assertEquals(9, restored.getAvailableSeatCount(1)),
+                () -> assertEquals(venue.getSeatMap().toString(), restored.getSeatMap().toString())
+        );
+    }
+
+}
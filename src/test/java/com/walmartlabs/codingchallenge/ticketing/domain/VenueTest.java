@@ -0,0 +1,153 @@
+package com.walmartlabs.codingchallenge.ticketing.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VenueTest {
+
+    private static final int NUM_ROWS = 3;
+    private static final int SEATS_PER_ROW = 5;
+
+    private Venue venue;
+
+    @BeforeEach
+    void setup() {
+        venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+    }
+
+    @Test
+    void findSequentSeatsPicksCenterOfFrontRow() {
+        assertArrayEquals(new int[]{2, 3, 4}, venue.findSequentSeats(3, null),
+                "Best block should be centered in the front row");
+    }
+
+    @Test
+    void findSequentSeatsSkipsExcludedSeats() {
+        assertArrayEquals(new int[]{6, 7, 8, 9}, venue.findSequentSeats(4, Arrays.asList(3)),
+                "Front row can't fit 4 seats without the excluded seat");
+    }
+
+    @Test
+    void findSequentSeatsTakesBestRatedWindowAroundExcludedSeats() {
+        venue.holdSeats(new int[]{1}, 60);
+        assertArrayEquals(new int[]{4, 5}, venue.findSequentSeats(2, Arrays.asList(3)),
+                "Only the right of the excluded seat is still free and wide enough in the front row");
+        assertArrayEquals(new int[]{3}, venue.findSequentSeats(1, Arrays.asList(2, 4)),
+                "Center seat is the best single seat");
+    }
+
+    @Test
+    void findSplitSeatsTakesLongestRunsWholeAndBestWindowForTheRest() {
+        venue.holdSeats(new int[]{1, 8, 11, 12, 13, 14, 15}, 60);
+        assertArrayEquals(new int[][]{{2, 3, 4, 5}, {6, 7}}, venue.findSplitSeats(6),
+                "Front row run should be taken whole, the rest goes to the best window of the next row");
+        assertArrayEquals(new int[][]{{2, 3, 4, 5}, {6, 7}, {9, 10}}, venue.findSplitSeats(8),
+                "Every free run should be used when the group needs all of them");
+        assertEquals(0, venue.findSplitSeats(9).length, "Group bigger than the free seats can't be seated");
+    }
+
+    @Test
+    void holdAndReserveUpdateAvailableSeatCount() {
+        int[] held = venue.findSequentSeats(3, null);
+        venue.holdSeats(held, 60);
+        assertEquals(venue.getTotalSeats() - 3, venue.getAvailableSeatCount(), "Holds should reduce the count");
+
+        venue.reserveSeats(held);
+        assertEquals(venue.getTotalSeats() - 3, venue.getAvailableSeatCount(),
+                "Reserving held seats shouldn't change the count again");
+        assertArrayEquals(new int[]{7, 8, 9}, venue.findSequentSeats(3, null),
+                "Reserved seats should not be picked again");
+    }
+
+    @Test
+    void releasedSeatsAreAvailableAgain() {
+        int[] held = venue.findSequentSeats(SEATS_PER_ROW, null);
+        venue.holdSeats(held, 60);
+        assertEquals(venue.getTotalSeats() - SEATS_PER_ROW, venue.getAvailableSeatCount());
+
+        venue.releaseSeats(held);
+        assertEquals(venue.getTotalSeats(), venue.getAvailableSeatCount(), "Released holds should free their seats");
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, venue.findSequentSeats(SEATS_PER_ROW, null),
+                "Released seats should be picked again");
+    }
+
+    @Test
+    void releaseLeavesReservedSeatsAlone() {
+        int[] held = venue.findSequentSeats(2, null);
+        venue.holdSeats(held, 60);
+        venue.reserveSeats(held);
+
+        venue.releaseSeats(held);
+        assertEquals(venue.getTotalSeats() - 2, venue.getAvailableSeatCount(), "Reserved seats should stay taken");
+    }
+
+    @Test
+    void availabilitySnapshotsAreVersionedAndShareUnchangedRows() {
+        AvailabilitySnapshot before = venue.getAvailabilitySnapshot();
+        venue.holdSeats(new int[]{2, 3, 7}, 60);
+        venue.reserveSeats(new int[]{2, 3});
+        AvailabilitySnapshot after = venue.getAvailabilitySnapshot();
+
+        assertAll("snapshots",
+                () -> assertEquals(0, before.getVersion()),
+                () -> assertEquals(venue.getTotalSeats(), before.getAvailableSeats(), "Old snapshot shouldn't change"),
+                () -> assertEquals(AvailabilitySnapshot.FREE, before.getState(2)),
+                () -> assertEquals(3, after.getVersion(), "Every change should count the version up per row"),
+                () -> assertEquals(venue.getAvailableSeatCount(), after.getAvailableSeats()),
+                () -> assertEquals(3, after.getFreeSeats(0)),
+                () -> assertEquals(4, after.getFreeSeats(1)),
+                () -> assertEquals(AvailabilitySnapshot.RESERVED, after.getState(3)),
+                () -> assertEquals(AvailabilitySnapshot.HELD, after.getState(7)),
+                () -> assertEquals(AvailabilitySnapshot.FREE, after.getState(8)),
+                () -> assertSame(before.row(2), after.row(2), "Unchanged rows should be shared")
+        );
+    }
+
+    @Test
+    void snapshotsShowChangesToSeveralRowsAllAtOnce() throws InterruptedException {
+        // Seats 1 and 6 are in different rows and always held and released together
+        int[] pair = {1, SEATS_PER_ROW + 1};
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20000; i++) {
+                venue.holdSeats(pair, 60);
+                venue.releaseSeats(pair);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            AvailabilitySnapshot snapshot = venue.getAvailabilitySnapshot();
+            assertEquals(snapshot.getState(pair[0]), snapshot.getState(pair[1]),
+                    "Both rows should be seen in the same state, version " + snapshot.getVersion());
+        }
+        writer.join();
+        assertEquals(80000, venue.getAvailabilitySnapshot().getVersion(), "Every change should count both rows");
+    }
+
+    @Test
+    void seatMapIsCachedPerVersionAndDecodesEverySeat() {
+        SeatMap empty = venue.getSeatMap();
+        assertSame(empty, venue.getSeatMap(), "Unchanged venue should serve the cached map");
+
+        venue.holdSeats(new int[]{2, 3, 14}, 60);
+        venue.reserveSeats(new int[]{14});
+        SeatMap seatMap = venue.getSeatMap();
+
+        assertAll("seat map",
+                () -> assertEquals(3, seatMap.getVersion()),
+                () -> assertEquals(AvailabilitySnapshot.HELD, seatMap.getState(3)),
+                () -> assertEquals(AvailabilitySnapshot.RESERVED, seatMap.getState(14)),
+                () -> assertEquals(AvailabilitySnapshot.FREE, seatMap.getState(15)),
+                () -> assertEquals(AvailabilitySnapshot.FREE, empty.getState(3), "Older maps shouldn't change"),
+                () -> assertEquals(16 + NUM_ROWS * 2, seatMap.asByteBuffer().remaining(), "Two bits per seat"),
+                () -> assertEquals("AHHAA\nAAAAA\nAAARA\n", seatMap.toString())
+        );
+    }
+
+}
@@ -6,12 +6,16 @@ import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
 import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
 import com.walmartlabs.codingchallenge.ticketing.services.TicketService;
 import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.TicketServiceMetrics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static junit.framework.TestCase.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class SimpleTicketServiceTest {
@@ -85,6 +89,20 @@ class SimpleTicketServiceTest {
         );
     }
 
+    @Test
+    void expiredSeatHoldCannotBeReserved() throws InterruptedException {
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL);
+        Thread.sleep(1200);
+
+        ExceptionHelper.testException(TicketServiceException.class,
+                () -> ticketService.reserveSeats(seatHold.getId(), CUSTOMER_EMAIL),
+                String.format("SeatHold with id: %d is either invalid or expired or reserved already.", seatHold.getId())
+        );
+        assertEquals(venue.getTotalSeats(), ticketService.numSeatsAvailable(),
+                "Expired holds should not reserve any seats"
+        );
+    }
+
     @Test
     void reserveSeats() {
         SeatHold seatHold = ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL);
@@ -107,4 +125,44 @@ class SimpleTicketServiceTest {
         }
     }
 
+    @Test
+    void findSeatHoldsListsActiveHoldsOfTheCustomer() {
+        SimpleTicketService service = (SimpleTicketService) ticketService;
+        SeatHold first = service.findAndHoldSeats(1, CUSTOMER_EMAIL);
+        service.findAndHoldSeats(1, "someone@tech.com");
+        SeatHold second = service.findAndHoldSeats(2, CUSTOMER_EMAIL);
+        SeatHold third = service.findAndHoldSeats(1, CUSTOMER_EMAIL);
+
+        service.reserveSeats(second.getId(), CUSTOMER_EMAIL);
+
+        assertEquals(Arrays.asList(third, first), service.findSeatHolds(CUSTOMER_EMAIL),
+                "Reserved holds and other customers' holds should not be listed");
+    }
+
+    @Test
+    void metricsCountHoldsSplitsAndRejections() {
+        SimpleTicketService service = (SimpleTicketService) ticketService;
+        for (int row = 0; row < NUM_ROWS; row++) {
+            service.findAndHoldSeats(2, CUSTOMER_EMAIL);
+        }
+        // One seat is left in every row, so the group gets split
+        SeatHold splitHold = service.findAndHoldSeats(3, CUSTOMER_EMAIL);
+        service.reserveSeats(splitHold.getId(), CUSTOMER_EMAIL);
+        ExceptionHelper.testException(TicketServiceException.class, () -> service.findAndHoldSeats(1, CUSTOMER_EMAIL),
+                "We don't have 1 many seats available right now.");
+
+        TicketServiceMetrics.Snapshot metrics = service.getMetrics().snapshotAndReset();
+        assertAll("metrics",
+                () -> assertEquals(4, metrics.getHolds()),
+                () -> assertEquals(1, metrics.getSplitHolds()),
+                () -> assertEquals(3, metrics.getFallbackIterations(), "Split group should be seated in three blocks"),
+                () -> assertEquals(1, metrics.getRejections()),
+                () -> assertEquals(1, metrics.getReservations()),
+                () -> assertEquals(5, metrics.getFindAndHoldLatency().getCount()),
+                () -> assertEquals(1, metrics.getReserveLatency().getCount()),
+                () -> assertEquals(6, metrics.getLockWait().getCount(), "Every call should record its lock wait once"),
+                () -> assertEquals(0, service.getMetrics().snapshot().getHolds(), "Snapshot and reset should start over")
+        );
+    }
+
 }
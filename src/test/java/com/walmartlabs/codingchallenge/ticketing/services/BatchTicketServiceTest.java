@@ -0,0 +1,86 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.HoldRequest;
+import com.walmartlabs.codingchallenge.ticketing.domain.HoldResult;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.TicketServiceMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchTicketServiceTest {
+
+    private static final int VENUE_ID = 1;
+    private static final int NUM_ROWS = 3;
+    private static final int SEATS_PER_ROW = 3;
+
+    private static final HoldRequest SINGLE = new HoldRequest(1, "single@tech.com");
+    private static final HoldRequest FAMILY = new HoldRequest(3, "family@tech.com");
+
+    private Venue venue;
+    private BatchTicketService ticketService;
+
+    @BeforeEach
+    void setup() {
+        venue = new Venue(VENUE_ID, NUM_ROWS, SEATS_PER_ROW);
+        ticketService = new SimpleTicketService(venue, 60);
+    }
+
+    @Test
+    void arrivalOrderServesRequestsAsTheyCame() {
+        List<HoldResult> results = ticketService.findAndHoldSeats(Arrays.asList(SINGLE, FAMILY), BatchOrder.ARRIVAL);
+
+        assertAll("arrival order",
+                () -> assertEquals(SINGLE, results.get(0).getRequest(), "Results should follow the request order"),
+                () -> assertArrayEquals(new int[]{2}, results.get(0).getSeatHold().getSeats()),
+                () -> assertArrayEquals(new int[]{4, 5, 6}, results.get(1).getSeatHold().getSeats())
+        );
+    }
+
+    @Test
+    void largestFirstSeatsBigGroupsBeforeSmallOnes() {
+        List<HoldResult> results = ticketService.findAndHoldSeats(Arrays.asList(SINGLE, FAMILY), BatchOrder.LARGEST_FIRST);
+
+        assertAll("largest first",
+                () -> assertEquals(SINGLE, results.get(0).getRequest(), "Results should follow the request order"),
+                () -> assertArrayEquals(new int[]{5}, results.get(0).getSeatHold().getSeats()),
+                () -> assertArrayEquals(new int[]{1, 2, 3}, results.get(1).getSeatHold().getSeats()),
+                () -> assertEquals(venue.getTotalSeats() - 4, ticketService.numSeatsAvailable())
+        );
+    }
+
+    @Test
+    void failedRequestsDontStopTheBatch() {
+        HoldRequest tooMany = new HoldRequest(100, "greedy@tech.com");
+        List<HoldResult> results = ticketService.findAndHoldSeats(Arrays.asList(tooMany, SINGLE), BatchOrder.ARRIVAL);
+
+        assertAll("failures",
+                () -> assertFalse(results.get(0).isSuccess(), "Request for more than the venue should fail"),
+                () -> assertEquals("You are requesting to hold more than the whole venue. ", results.get(0).getFailure()),
+                () -> assertTrue(results.get(1).isSuccess(), "Next request should still get its seats")
+        );
+    }
+
+    @Test
+    void batchesShowUpInTheMetrics() {
+        ticketService.findAndHoldSeats(Arrays.asList(FAMILY, FAMILY, FAMILY, SINGLE), BatchOrder.ARRIVAL);
+
+        TicketServiceMetrics.Snapshot metrics = ((SimpleTicketService) ticketService).getMetrics().snapshot();
+        assertAll("batch metrics",
+                () -> assertEquals(1, metrics.getBatchLatency().getCount(), "Batch latency should be recorded per batch"),
+                () -> assertEquals(4, metrics.getBatchRequests()),
+                () -> assertEquals(3, metrics.getHolds(), "Requests of a batch should count as holds"),
+                () -> assertEquals(1, metrics.getRejections(), "Last request should find the venue full"),
+                () -> assertEquals(1, metrics.getLockWait().getCount(), "The batch should take the lock once")
+        );
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentTicketServiceStressTest {
+
+    private static final Logger LOG = Logger.getLogger(ConcurrentTicketServiceStressTest.class.getName());
+    private static final String EMAIL = "sampleemail";
+    private static final int maxBlockSize = 15;
+    private static final int threads = 10;
+    private static final int seats = 100;
+    private static final int rows = 50;
+
+    private Venue venue;
+    private TicketService service;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void beforeEach() {
+        venue = new Venue(1, rows, seats);
+        service = new ConcurrentTicketService(venue, 60);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void holdAndReserveSeatsWithoutDoubleBooking() throws Exception {
+
+        long start = System.currentTimeMillis();
+        List<Future<List<SeatHold>>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                List<SeatHold> holds = new ArrayList<>();
+                while (service.numSeatsAvailable() > maxBlockSize) {
+                    int numTicketsToHold = ThreadLocalRandom.current().nextInt(1, maxBlockSize + 1);
+                    SeatHold seatHold;
+                    try {
+                        seatHold = service.findAndHoldSeats(numTicketsToHold, EMAIL);
+                    } catch (TicketServiceException ex) {
+                        // Other threads took the seats between the count and the hold
+                        continue;
+                    }
+                    if (seatHold.getId() != null) {
+                        holds.add(seatHold);
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            service.reserveSeats(seatHold.getId(), EMAIL);
+                        }
+                    }
+                }
+                return holds;
+            }));
+        }
+
+        // Every seat may only show up in one hold
+        Set<Integer> heldSeats = ConcurrentHashMap.newKeySet();
+        int seatsHeld = 0;
+        for (Future<List<SeatHold>> worker : workers) {
+            for (SeatHold seatHold : worker.get()) {
+                assertEquals(seatHold.getNumSeats(), seatHold.getSeats().length, "Hold should have all its seats");
+                for (int seat : seatHold.getSeats()) {
+                    assertTrue(heldSeats.add(seat), "Seat " + seat + " was handed out twice");
+                }
+                seatsHeld += seatHold.getNumSeats();
+            }
+        }
+
+        assertEquals(venue.getTotalSeats() - seatsHeld, service.numSeatsAvailable(),
+                "Available seats should account for every held seat");
+
+        LOG.info("\n\n---------- Concurrent Stress Test Results ----------\n" +
+                String.format("\tTotal Seats Held: %d\n", heldSeats.size()) +
+                String.format("\tTime: %d ms\n", (System.currentTimeMillis() - start)));
+    }
+
+}
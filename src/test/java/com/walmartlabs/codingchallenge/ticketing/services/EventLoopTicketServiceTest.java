@@ -0,0 +1,161 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.HoldJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLoopTicketServiceTest {
+
+    private static final String EMAIL = "async@tech.com";
+    private static final int NUM_ROWS = 100;
+    private static final int SEATS_PER_ROW = 100;
+    private static final int THREADS = 8;
+
+    private Venue venue;
+    private EventLoopTicketService ticketService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        ticketService = new EventLoopTicketService(new SimpleTicketService(venue, 60));
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void cleanup() {
+        ticketService.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void manyRequestsInFlightAreAllServedWithoutDoubleBooking() throws Exception {
+
+        List<Future<List<CompletableFuture<SeatHold>>>> submitters = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            submitters.add(executor.submit(() -> {
+                List<CompletableFuture<SeatHold>> holds = new ArrayList<>();
+                for (int j = 0; j < 500; j++) {
+                    holds.add(ticketService.findAndHoldSeats(2, EMAIL));
+                }
+                return holds;
+            }));
+        }
+
+        Set<Integer> heldSeats = new HashSet<>();
+        for (Future<List<CompletableFuture<SeatHold>>> submitter : submitters) {
+            for (CompletableFuture<SeatHold> hold : submitter.get()) {
+                for (int seat : hold.get().getSeats()) {
+                    assertTrue(heldSeats.add(seat), "Seat " + seat + " was handed out twice");
+                }
+            }
+        }
+
+        assertAll("served requests",
+                () -> assertEquals(THREADS * 500 * 2, heldSeats.size()),
+                () -> assertEquals(venue.getTotalSeats() - heldSeats.size(), ticketService.numSeatsAvailable().get().intValue()),
+                () -> assertEquals(0, ticketService.getPendingCount())
+        );
+    }
+
+    @Test
+    void failuresCompleteTheFutureExceptionally() throws Exception {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(4, EMAIL).get();
+        assertEquals("R" + seatHold.getId(), ticketService.reserveSeats(seatHold.getId(), EMAIL).get());
+
+        ExecutionException reserveAgain = assertThrows(ExecutionException.class,
+                () -> ticketService.reserveSeats(seatHold.getId(), EMAIL).get());
+        ExecutionException invalidRequest = assertThrows(ExecutionException.class,
+                () -> ticketService.findAndHoldSeats(0, EMAIL).get());
+        assertAll("failures",
+                () -> assertTrue(reserveAgain.getCause() instanceof TicketServiceException),
+                () -> assertTrue(invalidRequest.getCause() instanceof IllegalArgumentException)
+        );
+    }
+
+    @Test
+    void eventLoopDoesntWaitForTheJournal() throws Exception {
+
+        Path journalFile = Files.createTempFile("holds", ".journal");
+        SimpleTicketService journaled = new SimpleTicketService(venue, 60);
+        // A commit interval far longer than it takes to serve the requests below
+        try (HoldJournal journal = new HoldJournal(journalFile, 2000);
+             EventLoopTicketService service = new EventLoopTicketService(journaled)) {
+            journaled.setJournal(journal);
+
+            CompletableFuture<SeatHold> hold = service.findAndHoldSeats(2, EMAIL);
+            int available = service.numSeatsAvailable().get(1, TimeUnit.SECONDS);
+            assertFalse(hold.isDone(), "The hold should still wait for the journal");
+            assertEquals(venue.getTotalSeats() - 2, available, "The hold's seats should be claimed already");
+            assertEquals(2, hold.get(5, TimeUnit.SECONDS).getSeats().length);
+        } finally {
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    @Test
+    void errorsFailTheRequestAndTheEventLoopGoesOn() throws Exception {
+
+        TicketService broken = new TicketService() {
+            @Override
+            public int numSeatsAvailable() {
+                return venue.getAvailableSeatCount();
+            }
+
+            @Override
+            public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+                throw new AssertionError("Broken service");
+            }
+
+            @Override
+            public String reserveSeats(int seatHoldId, String customerEmail) {
+                throw new AssertionError("Broken service");
+            }
+        };
+        try (EventLoopTicketService service = new EventLoopTicketService(broken)) {
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> service.findAndHoldSeats(1, EMAIL).get(1, TimeUnit.SECONDS));
+            assertAll("event loop after an error",
+                    () -> assertTrue(failure.getCause() instanceof AssertionError),
+                    () -> assertEquals(venue.getTotalSeats(),
+                            service.numSeatsAvailable().get(1, TimeUnit.SECONDS).intValue())
+            );
+        }
+    }
+
+    @Test
+    void closedServiceTurnsRequestsDown() {
+
+        ticketService.close();
+
+        ExecutionException closed = assertThrows(ExecutionException.class,
+                () -> ticketService.findAndHoldSeats(1, EMAIL).get());
+        assertEquals("The ticket service is shut down.", closed.getCause().getMessage());
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoldExpirationWheelTest {
+
+    private static final long TICK = 100;
+    private static final int WHEEL_SIZE = 8;
+
+    private HoldExpirationWheel wheel;
+    private List<Integer> expired;
+
+    @BeforeEach
+    void setup() {
+        wheel = new HoldExpirationWheel(TICK, WHEEL_SIZE, 0);
+        expired = new ArrayList<>();
+    }
+
+    @Test
+    void emptyWheelIsNeverDue() {
+        assertFalse(wheel.isDue(Long.MAX_VALUE - 1), "Nothing scheduled means nothing to expire");
+    }
+
+    @Test
+    void holdsExpireOnlyOnceDue() {
+        wheel.schedule(1, 250);
+        wheel.schedule(2, 310);
+
+        assertFalse(wheel.isDue(249), "First hold isn't due yet");
+        wheel.advance(249, expired::add);
+        assertEquals(Collections.emptyList(), expired, "Nothing should expire early");
+
+        assertTrue(wheel.isDue(250), "First hold is due");
+        wheel.advance(250, expired::add);
+        assertAll("first expiration",
+                () -> assertEquals(Collections.singletonList(1), expired, "Only the due hold should expire"),
+                () -> assertEquals(1, wheel.size(), "Second hold should still be pending")
+        );
+
+        wheel.advance(1000, expired::add);
+        assertEquals(Arrays.asList(1, 2), expired, "Both holds should be expired by now");
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void holdsBeyondOneRevolutionWaitForTheirRound() {
+        long deadline = TICK * WHEEL_SIZE + 50;
+        wheel.schedule(1, deadline);
+
+        wheel.advance(deadline - TICK * WHEEL_SIZE, expired::add);
+        assertEquals(Collections.emptyList(), expired, "Hold sharing the bucket from a later round should stay");
+
+        wheel.advance(deadline, expired::add);
+        assertEquals(Collections.singletonList(1), expired);
+    }
+
+    @Test
+    void longPausesExpireEverythingDue() {
+        for (int holdId = 1; holdId <= 20; holdId++) {
+            wheel.schedule(holdId, holdId * 37L);
+        }
+        wheel.advance(TICK * WHEEL_SIZE * 10, expired::add);
+        assertEquals(20, expired.size(), "Every hold should expire after a long pause");
+    }
+
+}
@@ -0,0 +1,257 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.ExceptionHelper;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.HoldJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class HoldJournalTest {
+
+    private static final String EMAIL = "journal@tech.com";
+    private static final int NUM_ROWS = 5;
+    private static final int SEATS_PER_ROW = 10;
+
+    private Path journalFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        journalFile = Files.createTempFile("holds", ".journal");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Test
+    void recoveredServiceKeepsHoldsAndReservations() throws IOException {
+
+        SeatHold reserved;
+        SeatHold held;
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            SimpleTicketService service = new SimpleTicketService(new Venue(1, NUM_ROWS, SEATS_PER_ROW), 60);
+            service.setJournal(journal);
+            reserved = service.findAndHoldSeats(4, EMAIL);
+            held = service.findAndHoldSeats(3, EMAIL);
+            service.reserveSeats(reserved.getId(), EMAIL);
+        }
+
+        Venue venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        SimpleTicketService recovered = new SimpleTicketService(venue, 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            assertEquals(3, recovered.recover(journal), "Every event should be replayed");
+        }
+
+        SeatHold next = recovered.findAndHoldSeats(1, EMAIL);
+        assertAll("recovered service",
+                () -> assertEquals(venue.getTotalSeats() - 8, recovered.numSeatsAvailable()),
+                () -> assertEquals(held.getId() + 1, next.getId().intValue(), "Ids should continue after the journal"),
+                () -> ExceptionHelper.testException(TicketServiceException.class,
+                        () -> recovered.reserveSeats(reserved.getId(), EMAIL),
+                        String.format("SeatHold with id: %d is either invalid or expired or reserved already.", reserved.getId())),
+                () -> assertEquals("R" + held.getId(), recovered.reserveSeats(held.getId(), EMAIL))
+        );
+    }
+
+    @Test
+    void tornRecordIsCutOffOnReplay() throws IOException {
+
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            SimpleTicketService service = new SimpleTicketService(new Venue(1, NUM_ROWS, SEATS_PER_ROW), 60);
+            service.setJournal(journal);
+            service.findAndHoldSeats(2, EMAIL);
+            service.findAndHoldSeats(2, EMAIL);
+        }
+        long intactSize = Files.size(journalFile);
+        // A crash in the middle of writing the next record leaves a partial frame behind
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2}));
+        }
+
+        Venue venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        SimpleTicketService recovered = new SimpleTicketService(venue, 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            assertEquals(2, recovered.recover(journal));
+        }
+
+        assertAll("torn tail",
+                () -> assertEquals(intactSize, Files.size(journalFile), "The torn record should be cut off"),
+                () -> assertEquals(venue.getTotalSeats() - 4, recovered.numSeatsAvailable())
+        );
+    }
+
+    @Test
+    void holdsAndReservationsAreOnDiskOnceHandedOut() throws IOException {
+
+        // A commit interval long enough that only waiting for the commit gets the records on disk in time
+        try (HoldJournal journal = new HoldJournal(journalFile, 200)) {
+            SimpleTicketService service = new SimpleTicketService(new Venue(1, NUM_ROWS, SEATS_PER_ROW), 60);
+            service.setJournal(journal);
+            SeatHold seatHold = service.findAndHoldSeats(2, EMAIL);
+            assertEquals(1, replayedEvents(), "The hold should be on disk before it is handed out");
+            service.reserveSeats(seatHold.getId(), EMAIL);
+            assertEquals(2, replayedEvents(), "The reservation should be on disk before it is confirmed");
+        }
+    }
+
+    @Test
+    void failingListenerDoesntFailTheHold() throws IOException {
+
+        AtomicInteger heard = new AtomicInteger();
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            SimpleTicketService service = new SimpleTicketService(new Venue(1, NUM_ROWS, SEATS_PER_ROW), 60);
+            service.setJournal(journal);
+            service.addSeatHoldListener(new SeatHoldListener() {
+                @Override
+                public void onHold(SeatHold seatHold, long expiresAt) {
+                    throw new IllegalStateException("Listener failed");
+                }
+            });
+            service.addSeatHoldListener(new SeatHoldListener() {
+                @Override
+                public void onHold(SeatHold seatHold, long expiresAt) {
+                    heard.incrementAndGet();
+                }
+            });
+
+            SeatHold seatHold = service.findAndHoldSeats(2, EMAIL);
+            assertAll("failing listener",
+                    () -> assertNotNull(seatHold.getId(), "The hold should be handed out"),
+                    () -> assertEquals(1, heard.get(), "Later listeners should still hear about the hold"),
+                    () -> assertEquals(1, replayedEvents())
+            );
+        }
+    }
+
+    @Test
+    void writesThatKeepFailingAreGivenUp() throws IOException {
+
+        // Every write to /dev/full fails with "No space left on device"
+        Path full = Paths.get("/dev/full");
+        assumeTrue(Files.isWritable(full), "Needs /dev/full");
+        try (HoldJournal journal = new HoldJournal(full, 10)) {
+            CompletableFuture<Void> written = journal.appendHold(new SeatHold(1, 1, new int[]{1}, EMAIL),
+                    System.currentTimeMillis() + 60_000);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> written.get(5, TimeUnit.SECONDS),
+                    "The write should fail once the commits are given up on, not hang");
+            assertEquals(IOException.class, failure.getCause().getClass());
+        }
+    }
+
+    @Test
+    void changesTheJournalCantTakeAreNotApplied() throws IOException {
+
+        Path full = Paths.get("/dev/full");
+        assumeTrue(Files.isWritable(full), "Needs /dev/full");
+        Venue venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        SimpleTicketService service = new SimpleTicketService(venue, 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10); HoldJournal broken = new HoldJournal(full, 10)) {
+            service.setJournal(journal);
+            SeatHold seatHold = service.findAndHoldSeats(2, EMAIL);
+
+            service.setJournal(broken);
+            assertAll("failed journal writes",
+                    () -> ExceptionHelper.testException(TicketServiceException.class,
+                            () -> service.findAndHoldSeats(3, EMAIL), "We couldn't save your request, please try again."),
+                    () -> ExceptionHelper.testException(TicketServiceException.class,
+                            () -> service.reserveSeats(seatHold.getId(), EMAIL),
+                            "We couldn't save your request, please try again."),
+                    () -> assertEquals(venue.getTotalSeats() - 2, service.numSeatsAvailable(),
+                            "Only the first hold should have seats")
+            );
+
+            service.setJournal(journal);
+            assertEquals("R" + seatHold.getId(), service.reserveSeats(seatHold.getId(), EMAIL),
+                    "The hold should still be there after the failed reservation");
+        }
+    }
+
+    @Test
+    void concurrentServiceOnlyAppliesWhatTheJournalTook() throws IOException {
+
+        Path full = Paths.get("/dev/full");
+        assumeTrue(Files.isWritable(full), "Needs /dev/full");
+        Venue venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        ConcurrentTicketService service = new ConcurrentTicketService(venue, 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10); HoldJournal broken = new HoldJournal(full, 10)) {
+            service.setJournal(journal);
+            SeatHold seatHold = service.findAndHoldSeats(2, EMAIL);
+
+            service.setJournal(broken);
+            assertAll("failed journal writes",
+                    () -> ExceptionHelper.testException(TicketServiceException.class,
+                            () -> service.findAndHoldSeats(3, EMAIL), "We couldn't save your request, please try again."),
+                    () -> ExceptionHelper.testException(TicketServiceException.class,
+                            () -> service.reserveSeats(seatHold.getId(), EMAIL),
+                            "We couldn't save your request, please try again."),
+                    () -> assertEquals(venue.getTotalSeats() - 2, service.numSeatsAvailable()),
+                    () -> assertEquals(1, service.findSeatHolds(EMAIL).size(), "Only the first hold should be there")
+            );
+
+            service.setJournal(journal);
+            assertEquals("R" + seatHold.getId(), service.reserveSeats(seatHold.getId(), EMAIL));
+        }
+    }
+
+    @Test
+    void concurrentHoldIsOnlyVisibleOnceJournaled() throws Exception {
+
+        Venue venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        ConcurrentTicketService service = new ConcurrentTicketService(venue, 60);
+        // A commit interval long enough to look at the service while the hold waits for it
+        try (HoldJournal journal = new HoldJournal(journalFile, 2000)) {
+            service.setJournal(journal);
+            CompletableFuture<SeatHold> hold = CompletableFuture.supplyAsync(() -> service.findAndHoldSeats(2, EMAIL));
+            while (venue.getAvailableSeatCount() == venue.getTotalSeats()) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, service.findSeatHolds(EMAIL).size(), "The hold should wait for the journal");
+            SeatHold seatHold = hold.get(5, TimeUnit.SECONDS);
+            assertEquals(seatHold, service.findSeatHolds(EMAIL).get(0));
+        }
+    }
+
+    /**
+     * @return the number of events on disk, read through a journal of its own
+     */
+    private long replayedEvents() throws IOException {
+        try (HoldJournal reader = new HoldJournal(journalFile, 10)) {
+            return reader.replay(new HoldJournal.ReplayHandler() {
+                @Override
+                public void onHold(SeatHold seatHold, long expiresAt) {
+                }
+
+                @Override
+                public void onReserve(int seatHoldId) {
+                }
+
+                @Override
+                public void onExpire(int seatHoldId) {
+                }
+            });
+        }
+    }
+
+}
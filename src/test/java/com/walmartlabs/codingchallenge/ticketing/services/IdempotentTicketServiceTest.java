@@ -0,0 +1,58 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.ExceptionHelper;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IdempotentTicketServiceTest {
+
+    private static final String CUSTOMER_EMAIL = "arjun@tech.com";
+
+    private IdempotentTicketService ticketService;
+
+    @BeforeEach
+    void setup() {
+        ticketService = new IdempotentTicketService(new SimpleTicketService(new Venue(1, 3, 3), 60), 60);
+    }
+
+    @Test
+    void retriesGetTheFirstHoldBack() {
+        SeatHold first = ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL, "key-1");
+        SeatHold retry = ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL, "key-1");
+        SeatHold other = ticketService.findAndHoldSeats(2, "someone@tech.com", "key-1");
+
+        assertAll("holds",
+                () -> assertSame(first, retry, "A retry should not hold more seats"),
+                () -> assertNotEquals(first.getId(), other.getId(), "Keys of different customers are unrelated"),
+                () -> assertEquals(5, ticketService.numSeatsAvailable())
+        );
+    }
+
+    @Test
+    void keyReusedForAnotherGroupSizeIsRejected() {
+        ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL, "key-1");
+        ExceptionHelper.testException(IllegalArgumentException.class,
+                () -> ticketService.findAndHoldSeats(3, CUSTOMER_EMAIL, "key-1"),
+                "Idempotency key key-1 was used to hold 2 seats already.");
+    }
+
+    @Test
+    void failedHoldsAreNotRemembered() {
+        ticketService.findAndHoldSeats(8, CUSTOMER_EMAIL);
+        ExceptionHelper.testException(TicketServiceException.class,
+                () -> ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL, "key-1"),
+                "We don't have 2 many seats available right now.");
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(1, CUSTOMER_EMAIL, "key-1");
+        assertEquals(1, seatHold.getNumSeats(), "The key should be free again after a failed hold");
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.ExceptionHelper;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuotaTicketServiceTest {
+
+    private static final String CUSTOMER_EMAIL = "arjun@tech.com";
+
+    private QuotaTicketService quotaService(int maxHeldSeats, double holdsPerSecond, int burst) {
+        SimpleTicketService service = new SimpleTicketService(new Venue(1, 3, 3), 60);
+        QuotaTicketService quotaService = new QuotaTicketService(service, 60, maxHeldSeats, holdsPerSecond, burst);
+        service.addSeatHoldListener(quotaService);
+        return quotaService;
+    }
+
+    @Test
+    void heldSeatsAreCappedUntilHoldsAreReserved() {
+        QuotaTicketService ticketService = quotaService(4, 1000, 100);
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(3, CUSTOMER_EMAIL);
+        ExceptionHelper.testException(TicketServiceException.class,
+                () -> ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL),
+                "Customer arjun@tech.com can't hold more than 4 seats at a time.");
+        ticketService.findAndHoldSeats(2, "someone@tech.com");
+
+        ticketService.reserveSeats(seatHold.getId(), CUSTOMER_EMAIL);
+        assertEquals(2, ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL).getNumSeats(),
+                "Reserved seats should not count against the quota anymore");
+        assertEquals(2, ticketService.getHeldSeats(CUSTOMER_EMAIL));
+    }
+
+    @Test
+    void holdsBeyondTheBurstAreTurnedDown() {
+        QuotaTicketService ticketService = quotaService(100, 0.01, 2);
+
+        ticketService.findAndHoldSeats(1, CUSTOMER_EMAIL);
+        ticketService.findAndHoldSeats(1, CUSTOMER_EMAIL);
+        ExceptionHelper.testException(TicketServiceException.class,
+                () -> ticketService.findAndHoldSeats(1, CUSTOMER_EMAIL),
+                "Too many hold requests from arjun@tech.com, please try again later.");
+        assertEquals(1, ticketService.findAndHoldSeats(1, "someone@tech.com").getNumSeats(),
+                "Other customers have buckets of their own");
+    }
+
+    @Test
+    void failedHoldsGiveTheirSeatsBack() {
+        QuotaTicketService ticketService = quotaService(100, 1000, 100);
+
+        ticketService.findAndHoldSeats(8, "someone@tech.com");
+        ExceptionHelper.testException(TicketServiceException.class,
+                () -> ticketService.findAndHoldSeats(2, CUSTOMER_EMAIL),
+                "We don't have 2 many seats available right now.");
+        assertEquals(0, ticketService.getHeldSeats(CUSTOMER_EMAIL));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.ExceptionHelper;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import com.walmartlabs.codingchallenge.ticketing.services.feed.SeatChange;
+import com.walmartlabs.codingchallenge.ticketing.services.feed.SeatChangeFeed;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatChangeFeedTest {
+
+    private static final String EMAIL = "feed@tech.com";
+
+    @Test
+    void viewersFollowChangesInSequenceAndResume() throws InterruptedException {
+
+        SeatChangeFeed feed = new SeatChangeFeed();
+        SimpleTicketService service = new SimpleTicketService(new Venue(1, 5, 10), 60);
+        service.addSeatHoldListener(feed);
+        SeatChangeFeed.Subscription subscription = feed.subscribe(feed.getLastSequence());
+
+        SeatHold first = service.findAndHoldSeats(3, EMAIL);
+        SeatHold second = service.findAndHoldSeats(2, EMAIL);
+        service.reserveSeats(first.getId(), EMAIL);
+        feed.onExpire(second);
+
+        List<SeatChange> changes = subscription.poll(10, 1, TimeUnit.SECONDS);
+        assertAll("changes",
+                () -> assertEquals(4, changes.size()),
+                () -> assertEquals(SeatChange.Type.HELD, changes.get(0).getType()),
+                () -> assertArrayEquals(first.getSeats(), changes.get(0).getSeatIds()),
+                () -> assertEquals(SeatChange.Type.RESERVED, changes.get(2).getType()),
+                () -> assertEquals(first.getId().intValue(), changes.get(2).getSeatHoldId()),
+                () -> assertEquals(SeatChange.Type.EXPIRED, changes.get(3).getType()),
+                () -> assertEquals(4, subscription.getSequence())
+        );
+
+        assertTrue(subscription.poll(10, 10, TimeUnit.MILLISECONDS).isEmpty(), "Nothing changed since");
+        List<SeatChange> resumed = feed.changesAfter(2, 10);
+        assertEquals(3, resumed.get(0).getSequence(), "Viewers should resume after the last change they saw");
+        assertEquals(1, feed.changesAfter(0, 1).size(), "Reads should stop at the given number of changes");
+    }
+
+    @Test
+    void expirationsAreHeardOnceTheSeatsAreFree() throws InterruptedException {
+
+        Venue simpleVenue = new Venue(1, 5, 10);
+        Venue concurrentVenue = new Venue(2, 5, 10);
+        SimpleTicketService simple = new SimpleTicketService(simpleVenue, 1);
+        ConcurrentTicketService concurrent = new ConcurrentTicketService(concurrentVenue, 1);
+        AtomicInteger simpleAvailable = new AtomicInteger();
+        AtomicInteger concurrentAvailable = new AtomicInteger();
+        simple.addSeatHoldListener(new SeatHoldListener() {
+            @Override
+            public void onExpire(SeatHold seatHold) {
+                simpleAvailable.set(simpleVenue.getAvailableSeatCount());
+            }
+        });
+        concurrent.addSeatHoldListener(new SeatHoldListener() {
+            @Override
+            public void onExpire(SeatHold seatHold) {
+                concurrentAvailable.set(concurrentVenue.getAvailableSeatCount());
+            }
+        });
+
+        simple.findAndHoldSeats(3, EMAIL);
+        concurrent.findAndHoldSeats(3, EMAIL);
+        Thread.sleep(1200);
+        simple.expireHolds();
+        concurrent.expireHolds();
+
+        assertAll("seats free when the expiration is heard",
+                () -> assertEquals(simpleVenue.getTotalSeats(), simpleAvailable.get()),
+                () -> assertEquals(concurrentVenue.getTotalSeats(), concurrentAvailable.get())
+        );
+    }
+
+    @Test
+    void viewersTooFarBehindHaveToReload() {
+
+        SeatChangeFeed feed = new SeatChangeFeed(2);
+        SimpleTicketService service = new SimpleTicketService(new Venue(1, 5, 10), 60);
+        service.addSeatHoldListener(feed);
+        for (int i = 0; i < 3; i++) {
+            service.findAndHoldSeats(1, EMAIL);
+        }
+
+        assertEquals(2, feed.changesAfter(1, 10).size());
+        ExceptionHelper.testException(TicketServiceException.class, () -> feed.changesAfter(0, 10),
+                "Changes after 0 are not kept anymore, please reload the seat map.");
+    }
+
+}
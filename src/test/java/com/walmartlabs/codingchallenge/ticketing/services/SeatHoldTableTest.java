@@ -0,0 +1,72 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SeatHoldTableTest {
+
+    @Test
+    void customerHoldsAreLinkedMostRecentFirst() {
+        SeatHoldTable table = new SeatHoldTable();
+        table.put(seatHold(1, "a@b.com"));
+        table.put(seatHold(2, "c@d.com"));
+        table.put(seatHold(3, "a@b.com"));
+        table.put(seatHold(4, "a@b.com"));
+
+        table.remove(3);
+
+        assertEquals(Arrays.asList(4, 1), ids(table.forCustomer("a@b.com")));
+        assertEquals(Arrays.asList(2), ids(table.forCustomer("c@d.com")));
+        assertEquals(0, table.forCustomer("x@y.com").size());
+        assertNull(table.remove(3), "A removed hold should be gone");
+    }
+
+    @Test
+    void matchesHashMapThroughGrowthAndRemovals() {
+        SeatHoldTable table = new SeatHoldTable();
+        Map<Integer, SeatHold> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 1; i <= 200_000; i++) {
+            SeatHold seatHold = seatHold(i, "customer" + random.nextInt(50) + "@tech.com");
+            table.put(seatHold);
+            expected.put(i, seatHold);
+            // Keep removing random live ids so probe sequences get holes shifted back into them
+            int victim = 1 + random.nextInt(i);
+            assertEquals(expected.remove(victim), table.remove(victim));
+        }
+
+        assertEquals(expected.size(), table.size());
+        for (int id = 1; id <= 200_000; id++) {
+            assertEquals(expected.get(id), table.get(id));
+        }
+        for (int customer = 0; customer < 50; customer++) {
+            String email = "customer" + customer + "@tech.com";
+            List<Integer> expectedIds = expected.values().stream().filter(h -> h.getCustomerEmail().equals(email))
+                    .map(SeatHold::getId).sorted((a, b) -> b - a).collect(Collectors.toList());
+            assertEquals(expectedIds, ids(table.forCustomer(email)));
+        }
+    }
+
+    private static SeatHold seatHold(int id, String email) {
+        return new SeatHold(id, 1, new int[]{id}, email);
+    }
+
+    private static List<Integer> ids(List<SeatHold> seatHolds) {
+        List<Integer> ids = new ArrayList<>();
+        seatHolds.forEach(seatHold -> ids.add(seatHold.getId()));
+        return ids;
+    }
+
+}
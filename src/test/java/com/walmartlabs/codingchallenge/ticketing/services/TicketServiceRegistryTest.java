@@ -0,0 +1,78 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.ExceptionHelper;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketServiceRegistryTest {
+
+    private static final String EMAIL = "registry@tech.com";
+    private static final int CONCERT = 1;
+    private static final int PLAY = 2;
+
+    private TicketServiceRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        registry = new TicketServiceRegistry();
+        registry.register(CONCERT, new Venue(10, 5, 10), 60);
+        registry.register(PLAY, new Venue(20, 3, 4), 60);
+    }
+
+    @AfterEach
+    void cleanup() {
+        registry.close();
+    }
+
+    @Test
+    void eventsHaveTheirOwnInventory() throws Exception {
+
+        SeatHold concertHold = registry.findAndHoldSeats(CONCERT, 8, EMAIL).get();
+        SeatHold playHold = registry.findAndHoldSeats(PLAY, 3, EMAIL).get();
+
+        assertAll("isolated events",
+                () -> assertEquals(42, registry.numSeatsAvailable(CONCERT).get().intValue()),
+                () -> assertEquals(9, registry.numSeatsAvailable(PLAY).get().intValue()),
+                () -> assertEquals("R" + playHold.getId(), registry.reserveSeats(PLAY, playHold.getId(), EMAIL).get()),
+                () -> assertEquals(1, registry.getMetrics(CONCERT).snapshot().getHolds()),
+                () -> assertEquals(1, registry.getMetrics(PLAY).snapshot().getReservations()),
+                () -> assertEquals(0, registry.getMetrics(CONCERT).snapshot().getReservations()),
+                () -> assertTrue(concertHold.getId() > 0)
+        );
+    }
+
+    @Test
+    void unknownEventIsNotOnSale() {
+
+        ExecutionException notOnSale = assertThrows(ExecutionException.class,
+                () -> registry.findAndHoldSeats(3, 1, EMAIL).get());
+        assertAll("unknown event",
+                () -> assertEquals("Event with id: 3 is not on sale.", notOnSale.getCause().getMessage()),
+                () -> ExceptionHelper.testException(TicketServiceException.class, () -> registry.forEvent(3),
+                        "Event with id: 3 is not on sale.")
+        );
+    }
+
+    @Test
+    void eventsCanOnlyBeRegisteredOnce() {
+
+        ExceptionHelper.testException(IllegalArgumentException.class,
+                () -> registry.register(CONCERT, new Venue(30, 1, 1), 60), "Event 1 is registered already");
+
+        registry.deregister(CONCERT);
+        registry.register(CONCERT, new Venue(30, 2, 2), 60);
+        assertEquals(2, registry.getEventIds().size());
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.HoldJournal;
+import com.walmartlabs.codingchallenge.ticketing.services.persistence.VenueSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VenueSnapshotTest {
+
+    private static final String EMAIL = "snapshot@tech.com";
+    private static final int NUM_ROWS = 6;
+    private static final int SEATS_PER_ROW = 9;
+
+    private Path snapshotFile;
+    private Path journalFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        snapshotFile = Files.createTempFile("venue", ".snapshot");
+        journalFile = Files.createTempFile("holds", ".journal");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Test
+    void restoredServiceContinuesWhereTheSnapshotWasTaken() throws IOException {
+
+        Venue venue = new Venue(7, NUM_ROWS, SEATS_PER_ROW);
+        SimpleTicketService service = new SimpleTicketService(venue, 60);
+        SeatHold reserved = service.findAndHoldSeats(5, EMAIL);
+        SeatHold held = service.findAndHoldSeats(4, EMAIL);
+        service.reserveSeats(reserved.getId(), EMAIL);
+        service.writeSnapshot(snapshotFile);
+
+        VenueSnapshot snapshot = VenueSnapshot.read(snapshotFile);
+        SimpleTicketService restored = SimpleTicketService.fromSnapshot(snapshot, 60);
+        Venue restoredVenue = snapshot.getVenue();
+
+        assertAll("restored service",
+                () -> assertEquals(venue, restoredVenue, "Venue id should be kept"),
+                () -> assertEquals(venue.printSeats(), restoredVenue.printSeats(), "Ratings and seat states should match"),
+                () -> assertEquals(service.numSeatsAvailable(), restored.numSeatsAvailable()),
+                () -> assertEquals(venue.getHoldExpiration(held.getSeats()[0]),
+                        restoredVenue.getHoldExpiration(held.getSeats()[0]), "Holds should keep their expiration"),
+                () -> assertArrayEquals(venue.findSequentSeats(3, null), restoredVenue.findSequentSeats(3, null)),
+                () -> assertEquals("R" + held.getId(), restored.reserveSeats(held.getId(), EMAIL)),
+                () -> assertEquals(held.getId() + 1, restored.findAndHoldSeats(2, EMAIL).getId().intValue())
+        );
+    }
+
+    @Test
+    void checkpointLetsTheJournalStartOver() throws IOException {
+
+        Venue venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        SimpleTicketService service = new SimpleTicketService(venue, 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            service.setJournal(journal);
+            service.findAndHoldSeats(3, EMAIL);
+            service.findAndHoldSeats(3, EMAIL);
+            service.checkpoint(snapshotFile, journal);
+            service.findAndHoldSeats(2, EMAIL);
+        }
+
+        SimpleTicketService restored = SimpleTicketService.fromSnapshot(VenueSnapshot.read(snapshotFile), 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            assertEquals(1, restored.recover(journal), "Only the hold after the checkpoint should be journaled");
+        }
+        assertEquals(venue.getTotalSeats() - 8, restored.numSeatsAvailable());
+    }
+
+    @Test
+    void crashBetweenSnapshotAndJournalResetIsRecovered() throws IOException {
+
+        Venue venue = new Venue(1, NUM_ROWS, SEATS_PER_ROW);
+        SimpleTicketService service = new SimpleTicketService(venue, 60);
+        SeatHold held;
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            service.setJournal(journal);
+            SeatHold reserved = service.findAndHoldSeats(3, EMAIL);
+            held = service.findAndHoldSeats(2, EMAIL);
+            service.reserveSeats(reserved.getId(), EMAIL);
+            // The snapshot is in place but the service goes down before checkpoint gets to reset the journal
+            service.writeSnapshot(snapshotFile);
+        }
+
+        SimpleTicketService restored = SimpleTicketService.fromSnapshot(VenueSnapshot.read(snapshotFile), 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            restored.recover(journal);
+        }
+        assertAll("restored service",
+                () -> assertEquals(venue.getTotalSeats() - 5, restored.numSeatsAvailable()),
+                () -> assertEquals("R" + held.getId(), restored.reserveSeats(held.getId(), EMAIL))
+        );
+    }
+
+    @Test
+    void longEmailsSurviveTheSnapshotAndTheJournal() throws IOException {
+
+        // Longer in UTF-8 than a short can count
+        String email = String.join("", Collections.nCopies(20_000, "\u00e9")) + "@tech.com";
+        SimpleTicketService service = new SimpleTicketService(new Venue(1, NUM_ROWS, SEATS_PER_ROW), 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            service.setJournal(journal);
+            service.findAndHoldSeats(2, email);
+            service.checkpoint(snapshotFile, journal);
+            service.findAndHoldSeats(2, email);
+        }
+
+        SimpleTicketService restored = SimpleTicketService.fromSnapshot(VenueSnapshot.read(snapshotFile), 60);
+        try (HoldJournal journal = new HoldJournal(journalFile, 10)) {
+            restored.recover(journal);
+        }
+        assertEquals(2, restored.findSeatHolds(email).size(), "Both holds should come back with their email");
+    }
+
+    @Test
+    void damagedSnapshotIsRejected() throws IOException {
+
+        new SimpleTicketService(new Venue(1, NUM_ROWS, SEATS_PER_ROW), 60).writeSnapshot(snapshotFile);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshotFile, bytes);
+
+        assertThrows(IOException.class, () -> VenueSnapshot.read(snapshotFile));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.walmartlabs.codingchallenge.ticketing.services;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.ExceptionHelper;
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.exceptions.TicketServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingRoomTest {
+
+    private static final String CUSTOMER_EMAIL = "arjun@tech.com";
+
+    private final CountDownLatch opened = new CountDownLatch(1);
+    private final CountDownLatch firstHoldStarted = new CountDownLatch(1);
+    private WaitingRoom waitingRoom;
+
+    @BeforeEach
+    void setup() {
+        TicketService service = new SimpleTicketService(new Venue(1, 3, 3), 60);
+        // Holds wait until the test opens the doors, so callers pile up in line
+        TicketService gated = new TicketService() {
+            @Override
+            public int numSeatsAvailable() {
+                return service.numSeatsAvailable();
+            }
+
+            @Override
+            public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+                firstHoldStarted.countDown();
+                try {
+                    opened.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return service.findAndHoldSeats(numSeats, customerEmail);
+            }
+
+            @Override
+            public String reserveSeats(int seatHoldId, String customerEmail) {
+                return service.reserveSeats(seatHoldId, customerEmail);
+            }
+        };
+        waitingRoom = new WaitingRoom(gated, 1, 2);
+    }
+
+    @AfterEach
+    void cleanup() {
+        opened.countDown();
+        waitingRoom.close();
+    }
+
+    @Test
+    void callersWaitInLineAndAreTurnedAwayWhenItIsFull() throws Exception {
+
+        WaitingRoom.Admission first = waitingRoom.enter(1, CUSTOMER_EMAIL);
+        assertTrue(firstHoldStarted.await(5, TimeUnit.SECONDS));
+        WaitingRoom.Admission second = waitingRoom.enter(2, CUSTOMER_EMAIL);
+        WaitingRoom.Admission third = waitingRoom.enter(3, CUSTOMER_EMAIL);
+
+        assertAll("line",
+                () -> assertEquals(0, first.getPosition()),
+                () -> assertEquals(0, second.getPosition(), "Second caller is next"),
+                () -> assertEquals(1, third.getPosition()),
+                () -> assertEquals(2, waitingRoom.getQueueLength())
+        );
+        ExceptionHelper.testException(TicketServiceException.class, () -> waitingRoom.enter(1, CUSTOMER_EMAIL),
+                "The waiting room is full, please try again later.");
+
+        opened.countDown();
+        assertEquals(3, third.getSeatHold().get(5, TimeUnit.SECONDS).getNumSeats());
+        assertAll("served",
+                () -> assertEquals(1, first.getSeatHold().get().getId().intValue(), "Callers are served in order"),
+                () -> assertEquals(2, second.getSeatHold().get().getId().intValue()),
+                () -> assertEquals(0, third.getPosition()),
+                () -> assertEquals(3, waitingRoom.numSeatsAvailable())
+        );
+    }
+
+    @Test
+    void blockingHoldsRethrowWhatTheServiceThrew() {
+        opened.countDown();
+        waitingRoom.findAndHoldSeats(8, CUSTOMER_EMAIL);
+        ExceptionHelper.testException(TicketServiceException.class, () -> waitingRoom.findAndHoldSeats(5, CUSTOMER_EMAIL),
+                "We don't have 5 many seats available right now.");
+    }
+
+}
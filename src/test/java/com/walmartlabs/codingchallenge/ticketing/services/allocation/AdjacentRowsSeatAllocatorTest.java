@@ -0,0 +1,57 @@
+package com.walmartlabs.codingchallenge.ticketing.services.allocation;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.SeatHold;
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.metrics.TicketServiceMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdjacentRowsSeatAllocatorTest {
+
+    private Venue venue;
+
+    @BeforeEach
+    void setup() {
+        venue = new Venue(1, 5, 10);
+    }
+
+    @Test
+    void largeGroupGetsWholeRowsBehindEachOther() {
+        SimpleTicketService service = new SimpleTicketService(venue, 60, new TicketServiceMetrics(),
+                new AdjacentRowsSeatAllocator());
+
+        SeatHold seatHold = service.findAndHoldSeats(30, "party@tech.com");
+
+        assertArrayEquals(IntStream.rangeClosed(1, 30).toArray(), seatHold.getSeats(),
+                "A party of 30 in a venue 10 wide should get the first three rows");
+    }
+
+    @Test
+    void blockSkipsRowsTooFragmentedAndCentersColumns() {
+        venue.holdSeats(new int[]{5}, 60);
+
+        int[][] blocks = new AdjacentRowsSeatAllocator().findSeats(venue, 12);
+
+        assertArrayEquals(new int[][]{{13, 14, 15, 16, 17, 18}, {23, 24, 25, 26, 27, 28}}, blocks,
+                "Front row can't take 6 seats next to each other, so the block should start in the second row");
+    }
+
+    @Test
+    void fallsBackToSplitGroupsWhenNoBlockFits() {
+        // Every row has its center seat taken, so no two rows have 6 free seats in the same columns
+        venue.holdSeats(new int[]{5, 15, 25, 35, 45}, 60);
+
+        int[][] blocks = new AdjacentRowsSeatAllocator(2).findSeats(venue, 12);
+
+        assertEquals(3, blocks.length, "The group should be split over the two free runs of a row and the best seats left");
+        assertEquals(12, Arrays.stream(blocks).mapToInt(block -> block.length).sum());
+    }
+
+}
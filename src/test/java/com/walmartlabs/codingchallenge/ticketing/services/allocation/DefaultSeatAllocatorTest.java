@@ -0,0 +1,53 @@
+package com.walmartlabs.codingchallenge.ticketing.services.allocation;
+
+import com.walmartlabs.codingchallenge.ticketing.domain.Venue;
+import com.walmartlabs.codingchallenge.ticketing.domain.VenueLayout;
+import com.walmartlabs.codingchallenge.ticketing.services.ConcurrentTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.SimpleTicketService;
+import com.walmartlabs.codingchallenge.ticketing.services.TicketService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DefaultSeatAllocatorTest {
+
+    private static final String EMAIL = "sections@tech.com";
+
+    /**
+     * Two rows of 6 in front, then a row of two blocks of 3 around an aisle and a short back row
+     */
+    private static final String LAYOUT = "section Floor\n"
+            + "2x 6\n"
+            + "section Balcony\n"
+            + "-2 3 -1 3\n"
+            + "4\n";
+
+    @Test
+    void fullFrontSectionIsSkipped() throws IOException {
+
+        Venue simpleVenue = new Venue(1, VenueLayout.read(new StringReader(LAYOUT)));
+        Venue concurrentVenue = new Venue(2, VenueLayout.read(new StringReader(LAYOUT)));
+        TicketService simple = new SimpleTicketService(simpleVenue, 60);
+        TicketService concurrent = new ConcurrentTicketService(concurrentVenue, 60);
+
+        // The floor keeps a single seat, too few for a group of 3
+        for (TicketService service : new TicketService[]{simple, concurrent}) {
+            service.findAndHoldSeats(6, EMAIL);
+            service.findAndHoldSeats(5, EMAIL);
+        }
+
+        assertAll("group of 3",
+                () -> assertEquals(1, simpleVenue.getAvailableSeatCount(0)),
+                () -> assertArrayEquals(new int[]{21, 22, 23}, simple.findAndHoldSeats(3, EMAIL).getSeats(),
+                        "The group should get the best block of the balcony's first row"),
+                () -> assertArrayEquals(new int[]{21, 22, 23}, concurrent.findAndHoldSeats(3, EMAIL).getSeats()),
+                () -> assertEquals(7, concurrentVenue.getAvailableSeatCount(1))
+        );
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.walmartlabs.codingchallenge.ticketing.services.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsKeepTheRelativeErrorBelowOneSixteenth() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertTrue(highest >= value && highest - value <= value / 16, "Bucket of " + value + " is too wide");
+        }
+        assertEquals(959, LatencyHistogram.bucketOf(Long.MAX_VALUE), "Largest value should use the last bucket");
+    }
+
+    @Test
+    void percentilesFollowTheRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertAll("percentiles",
+                () -> assertEquals(1000, snapshot.getCount()),
+                () -> assertEquals(500_500, snapshot.getMean(), 0.001),
+                () -> assertEquals(1_000_000, snapshot.getMax()),
+                () -> assertEquals(500_000, snapshot.getValueAtPercentile(50), 500_000 / 16),
+                () -> assertEquals(990_000, snapshot.getValueAtPercentile(99), 990_000 / 16),
+                () -> assertEquals(1_000_000, snapshot.getValueAtPercentile(100))
+        );
+    }
+
+    @Test
+    void resetStartsOver() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+
+        assertEquals(1, histogram.snapshotAndReset().getCount());
+        assertAll("after reset",
+                () -> assertEquals(0, histogram.snapshot().getCount()),
+                () -> assertEquals(0, histogram.snapshot().getMax()),
+                () -> assertEquals(0, histogram.snapshot().getValueAtPercentile(99))
+        );
+    }
+
+}